@@ -110,6 +110,21 @@ public interface Builder {
      */
     int getPriority();
 
+    /**
+     * Returns whether the plugin will be started lazily, only when it's retrieved from the factory or
+     * when a plugin that depends on it starts.
+     * <p>
+     * The default value is {@code true} if the plugin class is annotated with {@link dev.meinicke.plugin.annotation.Lazy}.
+     * The builders that don't support lazy plugins always return {@code false}, and their plugins are started
+     * while loading.
+     *
+     * @return true if the plugin is lazy, false otherwise
+     * @since 1.1.8
+     */
+    default boolean isLazy() {
+        return false;
+    }
+
     @NotNull Collection<String> getCategories();
     @NotNull PluginInitializer getInitializer();
 
@@ -141,6 +156,20 @@ public interface Builder {
      */
     @NotNull Builder priority(int priority);
 
+    /**
+     * Sets whether the plugin will be started lazily. A lazy plugin is built and registered at the factory, but stays
+     * idle until it's retrieved from the factory (or its instance) or a plugin that depends on it starts.
+     *
+     * @param lazy true to start the plugin lazily, false to start it while loading
+     * @return the current {@link Builder} instance, allowing for method chaining.
+     * @throws UnsupportedOperationException if this builder doesn't support lazy plugins
+     * @see dev.meinicke.plugin.annotation.Lazy
+     * @since 1.1.8
+     */
+    default @NotNull Builder lazy(boolean lazy) {
+        throw new UnsupportedOperationException("this builder doesn't support lazy plugins");
+    }
+
     /**
      * Sets the description for the plugin.
      *
@@ -103,7 +103,8 @@ public abstract class PluginInfo {
     protected final @NotNull Set<@NotNull PluginInfo> dependants = new LinkedHashSet<>();
 
     /**
-     * A set of category associated with the plugin, used for grouping or filtering.
+     * A set of category associated with the plugin, used for grouping or filtering. The changes are reflected at
+     * the members of the categories, see {@link PluginCategory#getPlugins()}.
      */
     private final @NotNull Set<PluginCategory> categories;
 
@@ -122,6 +123,11 @@ public abstract class PluginInfo {
      */
     private @NotNull State state = State.IDLE;
 
+    /**
+     * Marks that the plugin didn't finish its start or close in time, every state change after it is ignored.
+     */
+    private volatile boolean expired = false;
+
     /**
      * The actual plugin instance. This may be null if the plugin initialization strategy does not produce an instance.
      */
@@ -163,7 +169,7 @@ public abstract class PluginInfo {
         this.description = description;
         this.reference = reference;
         this.dependencies = new LinkedHashSet<>(Arrays.asList(dependencies));
-        this.categories = new HashSet<>(Arrays.asList(categories));
+        this.categories = new IndexedCategories(new HashSet<>(Arrays.asList(categories)));
         this.initializer = initializer;
         this.priority = priority;
         this.context = context;
@@ -179,8 +185,8 @@ public abstract class PluginInfo {
      * This behavior is integral to ensuring that plugins do not leave open resources or incomplete operations
      * when the application terminates.
      * <p>
-     * However, if the shutdown hook mechanism is disabled (for example, via {@link PluginFinder#setShutdownHook(boolean)}
-     * with a value of {@code false}), then this flag will have no effect, as the shutdown hook will not trigger
+     * However, if the shutdown hook mechanism is disabled (the default, see {@link PluginFinder#setShutdownHook(boolean)}),
+     * then this flag will have no effect, as the shutdown hook will not trigger
      * the automatic closure of plugins.
      * </p>
      *
@@ -198,7 +204,7 @@ public abstract class PluginInfo {
      * Conversely, setting it to {@code false} will prevent the plugin from being automatically closed.
      * <p>
      * <strong>Important:</strong> This setting is only effective if the shutdown hook mechanism is enabled.
-     * If the shutdown hook is disabled (e.g., by calling {@link PluginFinder#setShutdownHook(boolean)} with {@code false}),
+     * If the shutdown hook is disabled (the default, see {@link PluginFinder#setShutdownHook(boolean)}),
      * then the value of {@code autoClose} will be ignored and the plugin will not be automatically closed on shutdown.
      * </p>
      *
@@ -235,6 +241,11 @@ public abstract class PluginInfo {
         return state;
     }
     protected void setState(@NotNull State state) {
+        if (expired && state != State.FAILED) {
+            // The start or close that timed out is still changing the state
+            return;
+        }
+
         @NotNull State previous = this.state;
         this.state = state;
 
@@ -381,6 +392,29 @@ public abstract class PluginInfo {
         setState(State.STOPPING);
     }
 
+    /**
+     * Marks the plugin as {@link State#FAILED failed} because its start or close didn't finish within the
+     * timeout (see {@link dev.meinicke.plugin.annotation.Timeout}). The blocked start or close may still be
+     * running at another thread, and every state change made by it after this is ignored.
+     *
+     * @since 1.1.8
+     */
+    public final void expire() {
+        expired = true;
+        setState(State.FAILED);
+    }
+
+    /**
+     * Returns whether the plugin has been marked as failed because its start or close didn't finish in time.
+     *
+     * @return true if the plugin expired, false otherwise
+     * @see #expire()
+     * @since 1.1.8
+     */
+    public final boolean isExpired() {
+        return expired;
+    }
+
     // Equality and String Representation
 
     /**
@@ -609,4 +643,86 @@ public abstract class PluginInfo {
 
     }
 
-}
\ No newline at end of file
+    private final class IndexedCategories extends AbstractSet<PluginCategory> {
+
+        // Object
+
+        private final @NotNull Set<PluginCategory> shade;
+
+        private IndexedCategories(@NotNull Set<PluginCategory> shade) {
+            this.shade = shade;
+        }
+
+        // Modules
+
+        @Override
+        public boolean add(@NotNull PluginCategory category) {
+            if (!shade.add(category)) {
+                return false;
+            }
+
+            Plugins.getPluginFactory().join(PluginInfo.this, category);
+            return true;
+        }
+        @Override
+        public boolean remove(@NotNull Object o) {
+            if (!(o instanceof PluginCategory)) {
+                return false;
+            }
+
+            // Remove the stored instance, it may be another instance with the same name
+            for (@NotNull Iterator<PluginCategory> iterator = iterator(); iterator.hasNext(); ) {
+                if (iterator.next().equals(o)) {
+                    iterator.remove();
+                    return true;
+                }
+            }
+
+            return false;
+        }
+        @Override
+        public boolean contains(@NotNull Object o) {
+            return shade.contains(o);
+        }
+
+        // Iterators and size
+
+        @Override
+        public @NotNull Iterator<@NotNull PluginCategory> iterator() {
+            @NotNull Iterator<PluginCategory> iterator = shade.iterator();
+
+            return new Iterator<PluginCategory>() {
+
+                // Object
+
+                private @Nullable PluginCategory current;
+
+                // Implementations
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+                @Override
+                public @NotNull PluginCategory next() {
+                    return current = iterator.next();
+                }
+                @Override
+                public void remove() {
+                    if (current == null) throw new IllegalStateException();
+
+                    iterator.remove();
+                    Plugins.getPluginFactory().leave(PluginInfo.this, current);
+                    current = null;
+                }
+
+            };
+        }
+        @Override
+        public int size() {
+            return shade.size();
+        }
+
+    }
+
+}
@@ -0,0 +1,39 @@
+package dev.meinicke.plugin.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a plugin to be started lazily.
+ * <p>
+ * A lazy plugin is built and registered at the plugin factory while loading, like any other plugin, but it stays
+ * {@link dev.meinicke.plugin.PluginInfo.State#IDLE IDLE} until it's needed for the first time. It's started when:
+ * <ul>
+ *   <li>It's retrieved using {@link dev.meinicke.plugin.factory.PluginFactory#retrieve(Class)} or
+ *       {@link dev.meinicke.plugin.factory.PluginFactory#retrieve(String)};</li>
+ *   <li>Its instance is requested using {@link dev.meinicke.plugin.factory.PluginFactory#getInstance(Class)};</li>
+ *   <li>A plugin that depends on it starts.</li>
+ * </ul>
+ * The plugin is started only once, even if it's accessed by many threads at the same time; the other threads
+ * wait until the start finishes. Lazy plugins are useful for rarely used features (administration, diagnostics...)
+ * to reduce the startup time and memory usage.
+ * <p>
+ * The same can be configured at the builder using {@link dev.meinicke.plugin.Builder#lazy(boolean)}.
+ * <p>
+ * <strong>Example Usage:</strong>
+ * <pre>{@code
+ * Lazy
+ * Plugin
+ * public class DiagnosticsPlugin {
+ *     // Plugin implementation
+ * }
+ * }</pre>
+ *
+ * @since 1.1.8
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Lazy {
+}
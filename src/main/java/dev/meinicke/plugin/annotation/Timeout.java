@@ -0,0 +1,55 @@
+package dev.meinicke.plugin.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Specifies the maximum time a plugin can take to start or close, overriding the timeouts
+ * defined at the plugin finder ({@link dev.meinicke.plugin.factory.PluginFinder#setStartTimeout(java.time.Duration)}
+ * and {@link dev.meinicke.plugin.factory.PluginFinder#setCloseTimeout(java.time.Duration)}).
+ * <p>
+ * If the plugin doesn't finish starting (or closing) in time, a watchdog marks it as
+ * {@link dev.meinicke.plugin.PluginInfo.State#FAILED FAILED}, reports the stack of the blocked thread and
+ * the lifecycle proceeds without it: the plugins that depend on it are skipped while loading, and the
+ * other plugins keep closing while shutting down. The blocked thread isn't interrupted.
+ * <p>
+ * Negative values (the default) use the finder's timeout, and zero disables the timeout for this plugin.
+ * <p>
+ * <strong>Example Usage:</strong>
+ * <pre>{@code
+ * Timeout(start = 10, close = 5, unit = TimeUnit.SECONDS)
+ * Plugin
+ * public class DatabasePlugin {
+ *     // Plugin implementation
+ * }
+ * }</pre>
+ *
+ * @since 1.1.8
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Timeout {
+    /**
+     * The maximum time to start the plugin, in the {@link #unit()}.
+     *
+     * @return the start timeout, zero to disable it or negative to use the finder's timeout
+     */
+    long start() default -1;
+
+    /**
+     * The maximum time to close the plugin, in the {@link #unit()}.
+     *
+     * @return the close timeout, zero to disable it or negative to use the finder's timeout
+     */
+    long close() default -1;
+
+    /**
+     * The time unit of the start and close timeouts.
+     *
+     * @return the time unit of the timeouts
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
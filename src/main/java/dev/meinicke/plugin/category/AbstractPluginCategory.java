@@ -12,7 +12,7 @@ import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 public abstract class AbstractPluginCategory implements PluginCategory, Closeable {
 
@@ -69,6 +69,14 @@ public abstract class AbstractPluginCategory implements PluginCategory, Closeabl
 
     private final class CollectionImpl extends AbstractSet<PluginInfo> {
 
+        // Getters
+
+        private @NotNull Set<PluginInfo> getMembers() {
+            return Plugins.getPluginFactory().getMembers(AbstractPluginCategory.this);
+        }
+
+        // Modules
+
         @Override
         public boolean add(@NotNull PluginInfo info) {
             return info.getCategories().add(AbstractPluginCategory.this);
@@ -83,21 +91,46 @@ public abstract class AbstractPluginCategory implements PluginCategory, Closeabl
             }
         }
 
-        // Modules
-
-        private @NotNull Collection<PluginInfo> collect() {
-            return Plugins.getPluginFactory().stream().filter(plugin -> plugin.getCategories().contains(AbstractPluginCategory.this)).collect(Collectors.toSet());
+        @Override
+        public boolean contains(@NotNull Object o) {
+            return getMembers().contains(o);
         }
 
         // Iterator and size
 
         @Override
         public @NotNull Iterator<@NotNull PluginInfo> iterator() {
-            return collect().iterator();
+            @NotNull Iterator<PluginInfo> iterator = getMembers().iterator();
+
+            return new Iterator<PluginInfo>() {
+
+                // Object
+
+                private @Nullable PluginInfo current;
+
+                // Implementations
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+                @Override
+                public @NotNull PluginInfo next() {
+                    return current = iterator.next();
+                }
+                @Override
+                public void remove() {
+                    if (current == null) throw new IllegalStateException();
+
+                    CollectionImpl.this.remove(current);
+                    current = null;
+                }
+
+            };
         }
         @Override
         public int size() {
-            return collect().size();
+            return getMembers().size();
         }
 
     }
@@ -70,6 +70,10 @@ public interface InitializerFactory extends Closeable {
      * Returns an unmodifiable collection of all {@link PluginInitializer} instances managed
      * by this factory.
      * <p>
+     * The collection includes every initializer created by {@link #getInitializer(Class)}, since
+     * version 1.1.8 the initializers created on demand are cached and also listed here.
+     * </p>
+     * <p>
      * Each element is non-null and implements {@link PluginInitializer}. The returned
      * collection is unmodifiable—attempts to modify it throw {@link UnsupportedOperationException}.
      * </p>
@@ -87,6 +91,11 @@ public interface InitializerFactory extends Closeable {
      * Subsequent calls with the same {@code reference} return the same cached instance,
      * until {@link #close()} is invoked.
      * </p>
+     * <p>
+     * Since version 1.1.8, an initializer created by this method is added to the factory, so it's also
+     * returned by {@link #getInitializers()}. Before, the initializers that weren't already at the factory
+     * were instantiated on every call and never listed.
+     * </p>
      *
      * @param <T>        the concrete {@link PluginInitializer} type
      * @param reference  the class object of the initializer to retrieve
@@ -10,8 +10,11 @@ import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -144,6 +147,47 @@ public interface PluginFactory extends Iterable<PluginInfo> {
      */
     void setCategory(@NotNull PluginCategory category);
 
+    /**
+     * Retrieves the registered plugins that have the given category, this is the source of
+     * {@link PluginCategory#getPlugins()}. The categories are equal by their names, so every instance of a
+     * category has the same members.
+     * <p>
+     * The default implementation scans all the registered plugins. Implementations may keep an index of the members
+     * instead, updated at the registration and by {@link #join(PluginInfo, PluginCategory)} and
+     * {@link #leave(PluginInfo, PluginCategory)}.
+     *
+     * @param category The category to retrieve the members.
+     * @return An unmodifiable set with the registered plugins of the category.
+     * @since 1.1.8
+     */
+    @ApiStatus.Internal
+    default @NotNull Set<PluginInfo> getMembers(@NotNull PluginCategory category) {
+        return Collections.unmodifiableSet(stream().filter(plugin -> plugin.getCategories().contains(category)).collect(Collectors.toSet()));
+    }
+
+    /**
+     * Called by a plugin when a category is added to it, see {@link PluginInfo#getCategories()}. The plugins that
+     * aren't registered at this factory are ignored.
+     *
+     * @param info The plugin.
+     * @param category The category added to the plugin.
+     * @since 1.1.8
+     */
+    @ApiStatus.Internal
+    default void join(@NotNull PluginInfo info, @NotNull PluginCategory category) {
+    }
+    /**
+     * Called by a plugin when a category is removed from it, see {@link PluginInfo#getCategories()}. The plugins
+     * that aren't registered at this factory are ignored.
+     *
+     * @param info The plugin.
+     * @param category The category removed from the plugin.
+     * @since 1.1.8
+     */
+    @ApiStatus.Internal
+    default void leave(@NotNull PluginInfo info, @NotNull PluginCategory category) {
+    }
+
     /**
      * Retrieves the instance of the plugin corresponding to the given class reference, if it exists.
      * <p>
@@ -321,6 +365,17 @@ public interface PluginFactory extends Iterable<PluginInfo> {
      */
     @NotNull PluginFinder find();
 
+    /**
+     * Discards the classpath and modules scan memoized by this factory.
+     * <p>
+     * The finders with the scan cache enabled reuse the plugin classes discovered by the first scan of their scope
+     * (see {@link PluginFinder#setScanCacheEnabled(boolean)}), so classes added at runtime to the classpath
+     * directories, or new class loaders, are only discovered after the scan cache is invalidated.
+     *
+     * @since 1.1.8
+     */
+    void invalidateScanCache();
+
     // Plugins
 
     /**
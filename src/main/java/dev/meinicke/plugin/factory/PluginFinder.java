@@ -5,10 +5,16 @@ import dev.meinicke.plugin.category.PluginCategory;
 import dev.meinicke.plugin.exception.PluginInitializeException;
 import dev.meinicke.plugin.initializer.PluginInitializer;
 import dev.meinicke.plugin.metadata.Metadata;
+import dev.meinicke.plugin.processor.PluginIndexProcessor;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.Predicate;
 
 /**
@@ -133,6 +139,75 @@ public interface PluginFinder {
     @Contract(value = "_,_->this")
     @NotNull PluginFinder addPackage(@NotNull Package packge, boolean recursive);
 
+    /**
+     * Sets the module layers that will be scanned while searching for plugins, besides the boot layer.
+     * <p>
+     * The classes of a layer module are loaded using the layer's class loader for that module.
+     *
+     * @param layers One or more module layers to scan.
+     * @return This PluginFinder instance with the module layers updated.
+     * @since 1.1.8
+     */
+    @NotNull PluginFinder layers(@NotNull ModuleLayer @NotNull ... layers);
+
+    /**
+     * Adds a module layer that will be scanned while searching for plugins, besides the boot layer.
+     *
+     * @param layer The module layer to add.
+     * @return This PluginFinder instance with the module layer added.
+     * @see #layers(ModuleLayer...)
+     * @since 1.1.8
+     */
+    @NotNull PluginFinder addLayer(@NotNull ModuleLayer layer);
+
+    /**
+     * Restricts the module scanning to the modules with the specified names. If no module names are
+     * defined (default), all the application modules of the boot layer and the finder's layers are scanned.
+     *
+     * @param modules One or more module names to scan.
+     * @return This PluginFinder instance with the module names updated.
+     * @since 1.1.8
+     */
+    @NotNull PluginFinder modules(@NotNull String @NotNull ... modules);
+
+    /**
+     * Adds a module name to the modules that will be scanned.
+     *
+     * @param module The module name to add.
+     * @return This PluginFinder instance with the module name added.
+     * @see #modules(String...)
+     * @since 1.1.8
+     */
+    @NotNull PluginFinder addModule(@NotNull String module);
+
+    /**
+     * Marks if the JDK system modules (java.base, java.desktop, jdk.*...) should also be scanned while
+     * searching for plugins. They never contain plugins, so they're skipped by default.
+     *
+     * @param systemModules true to also scan the system modules, false to only scan the application modules (default)
+     * @return This PluginFinder instance with the system modules option updated.
+     * @since 1.1.8
+     */
+    @NotNull PluginFinder setSystemModules(boolean systemModules);
+
+    /**
+     * Checks if the JDK system modules are scanned while searching for plugins.
+     *
+     * @return true if the system modules are scanned
+     * @see #setSystemModules(boolean)
+     * @since 1.1.8
+     */
+    boolean hasSystemModules();
+
+    /**
+     * Retrieves the names of all the modules that will be scanned while searching for plugins,
+     * according to the finder's layers, module names and system modules option.
+     *
+     * @return an unmodifiable set with the names of the modules to scan
+     * @since 1.1.8
+     */
+    @NotNull Set<String> getModules();
+
     /**
      * Filters the search to include only plugins that are initialized by the specified PluginInitializer classes.
      *
@@ -559,12 +634,223 @@ public interface PluginFinder {
 
     /**
      * Marks if the plugins should have a shutdown hook to automatically disable them
+     * <p>
+     * When enabled, the loaded plugins marked to {@link PluginInfo#isAutoClose() auto close} are closed by a JVM
+     * shutdown hook of the factory, in the reverse order of the dependencies. The shutdown hook is disabled by
+     * default, so the plugins are only closed when they're interrupted explicitly.
      *
-     * @param shutdownHook true if the plugins should be automatically disabled
+     * @param shutdownHook true if the plugins should be automatically disabled, false otherwise (default)
      * @return This PluginFinder instance with the state filter updated.
      */
     @NotNull PluginFinder setShutdownHook(boolean shutdownHook);
 
+    /**
+     * Sets the directory used to persist the scan index of the classpath jars. Each jar has its own index
+     * containing its plugin classes, keyed by the jar's size, last modification time and content hash, so
+     * an unchanged jar is never opened again to discover its plugins, even after the JVM restarts.
+     * <p>
+     * Classpath directories are always scanned, since they don't have a cheap fingerprint.
+     *
+     * @param cacheDirectory the directory to store the scan index, or null to disable it (default)
+     * @return This PluginFinder instance with the cache directory updated.
+     * @since 1.1.8
+     */
+    @NotNull PluginFinder setCacheDirectory(@Nullable Path cacheDirectory);
+
+    /**
+     * Gets the directory used to persist the scan index of the classpath jars.
+     *
+     * @return the cache directory, or null if the scan index is disabled
+     * @see #setCacheDirectory(Path)
+     * @since 1.1.8
+     */
+    @Nullable Path getCacheDirectory();
+
+    /**
+     * Marks if the compile-time plugins indexes generated by the {@link PluginIndexProcessor} should be used.
+     * <p>
+     * When enabled, the {@code META-INF/jplugin/index} resources visible by the class loaders are used to discover
+     * the plugins, and the classpath entries that contain an index will not be scanned at all. The entries without
+     * an index are still scanned normally. The processor isn't discovered automatically by the compilers, each
+     * project must enable it at its build (see {@link PluginIndexProcessor}).
+     * <p>
+     * The indexes are trusted as they are, so this option is disabled by default. Only enable it when every indexed
+     * entry is always built with the processor: a stale or partial index (e.g. an IDE build without annotation
+     * processing, or a build that doesn't enable the processor) hides the plugins missing from it.
+     *
+     * @param indexEnabled true to use the compile-time indexes, false to always scan the classpath (default)
+     * @return This PluginFinder instance with the index option updated.
+     * @since 1.1.8
+     */
+    @NotNull PluginFinder setIndexEnabled(boolean indexEnabled);
+
+    /**
+     * Checks if the compile-time plugins indexes generated by the {@link PluginIndexProcessor} are used.
+     *
+     * @return true if the compile-time indexes are used
+     * @see #setIndexEnabled(boolean)
+     * @since 1.1.8
+     */
+    boolean isIndexEnabled();
+
+    /**
+     * Marks if this finder should reuse the scan memoized by its factory. With the scan cache, the classpath
+     * and modules are scanned only once per scope (class loaders, module layers and module options), and every
+     * later finder with the same scope only filters the memoized plugin classes. The packages aren't part of the
+     * scope, so finders of different packages share the same scan, but the first scan doesn't skip any package.
+     * <p>
+     * The cache is disabled by default, it only pays off when the same scope is loaded more than once, and the
+     * classes added to the runtime later are only discovered after {@link PluginFactory#invalidateScanCache()}.
+     *
+     * @param scanCacheEnabled true to reuse the factory's scan, false to always scan the runtime (default)
+     * @return This PluginFinder instance with the scan cache option updated.
+     * @see PluginFactory#invalidateScanCache()
+     * @since 1.1.8
+     */
+    @NotNull PluginFinder setScanCacheEnabled(boolean scanCacheEnabled);
+
+    /**
+     * Checks if this finder reuses the scan memoized by its factory.
+     *
+     * @return true if the factory's scan cache is used
+     * @see #setScanCacheEnabled(boolean)
+     * @since 1.1.8
+     */
+    boolean isScanCacheEnabled();
+
+    /**
+     * Sets the number of threads used to scan the classpath and modules while searching for plugins.
+     * <p>
+     * With a parallelism greater than one, the jars and modules are scanned concurrently and the
+     * directories are split by subdirectory, using a dedicated fork/join pool that only lives while
+     * the scan is running. Only worth it with many classpath entries on multi-core machines.
+     *
+     * @param parallelism the number of scanning threads, one (default) to scan sequentially at the caller thread
+     * @return This PluginFinder instance with the scan parallelism updated.
+     * @throws IllegalArgumentException if the parallelism is less than one
+     * @since 1.1.8
+     */
+    @NotNull PluginFinder setScanParallelism(int parallelism);
+
+    /**
+     * Gets the number of threads used to scan the classpath and modules while searching for plugins.
+     *
+     * @return the scan parallelism
+     * @see #setScanParallelism(int)
+     * @since 1.1.8
+     */
+    int getScanParallelism();
+
+    /**
+     * Sets the implementation used to read the classpath jars while searching for plugins.
+     *
+     * @param reader the jar reader, {@link JarReader#ZIP_FILE} by default
+     * @return This PluginFinder instance with the jar reader updated.
+     * @since 1.1.8
+     */
+    @NotNull PluginFinder setJarReader(@NotNull JarReader reader);
+
+    /**
+     * Gets the implementation used to read the classpath jars while searching for plugins.
+     *
+     * @return the jar reader
+     * @see #setJarReader(JarReader)
+     * @since 1.1.8
+     */
+    @NotNull JarReader getJarReader();
+
+    /**
+     * Sets the executor used to start and close the plugins. When defined, the plugins whose dependencies are
+     * already running are started concurrently at the executor, and the dependants of a plugin are only started
+     * after it finishes starting. The {@link dev.meinicke.plugin.annotation.Priority} still defines the order
+     * the ready plugins are submitted.
+     * <p>
+     * The handlers and the plugin info building still run at the loading thread, only the plugins start
+     * (and its start handlers) runs at the executor. If a plugin fails to start, the load fails as soon as the
+     * failure is noticed, without waiting the other plugins that are starting.
+     * <p>
+     * If the shutdown hook is enabled (see {@link #setShutdownHook(boolean)}), the loaded plugins are also closed at
+     * this executor by it, still respecting the reverse order of the dependencies. If the executor rejects a close
+     * (e.g. it was shut down before the JVM), the plugin is closed at the shutdown hook thread.
+     *
+     * @param executor the executor to start and close the plugins, or null to run them one by one at the calling thread (default)
+     * @return This PluginFinder instance with the executor updated.
+     * @see #useVirtualThreads()
+     * @since 1.1.8
+     */
+    @NotNull PluginFinder setExecutor(@Nullable Executor executor);
+
+    /**
+     * Starts and closes every plugin at its own virtual thread, so plugins that block on I/O while starting or
+     * closing don't need a sized thread pool. This is the same as calling {@link #setExecutor(Executor)} with
+     * a virtual thread per task executor.
+     * <p>
+     * Virtual threads are only available at Java 21 or newer, at older runtimes every plugin will be started and
+     * closed at its own daemon platform thread instead.
+     *
+     * @return This PluginFinder instance with the executor updated.
+     * @since 1.1.8
+     */
+    @NotNull PluginFinder useVirtualThreads();
+
+    /**
+     * Gets the executor used to start and close the plugins.
+     *
+     * @return the executor, or null if the plugins are started and closed one by one
+     * @see #setExecutor(Executor)
+     * @since 1.1.8
+     */
+    @Nullable Executor getExecutor();
+
+    /**
+     * Sets the maximum time every plugin can take to start. If a plugin doesn't finish starting in time, a watchdog
+     * marks it as {@link PluginInfo.State#FAILED FAILED}, reports the stack of the blocked thread and the load
+     * proceeds without it, skipping the plugins that depend on it. The blocked thread isn't interrupted.
+     * <p>
+     * To enforce the timeout the plugin is started at another thread (the {@link #setExecutor(Executor) executor},
+     * or its own thread if there isn't one), but the plugins are still started one by one if there's no executor.
+     * Each plugin can override this timeout using the {@link dev.meinicke.plugin.annotation.Timeout} annotation.
+     *
+     * @param timeout the start timeout, or null to wait the plugins start forever (default)
+     * @return This PluginFinder instance with the start timeout updated.
+     * @throws IllegalArgumentException if the timeout isn't positive
+     * @since 1.1.8
+     */
+    @NotNull PluginFinder setStartTimeout(@Nullable Duration timeout);
+
+    /**
+     * Gets the maximum time every plugin can take to start.
+     *
+     * @return the start timeout, or null if there's no timeout
+     * @see #setStartTimeout(Duration)
+     * @since 1.1.8
+     */
+    @Nullable Duration getStartTimeout();
+
+    /**
+     * Sets the maximum time every plugin can take to close at the shutdown hook, when it's enabled (see {@link #setShutdownHook(boolean)}).
+     * If a plugin doesn't finish closing in time, a watchdog marks it as {@link PluginInfo.State#FAILED FAILED},
+     * reports the stack of the blocked thread and the shutdown proceeds closing the other plugins. The blocked
+     * thread isn't interrupted.
+     * <p>
+     * Each plugin can override this timeout using the {@link dev.meinicke.plugin.annotation.Timeout} annotation.
+     *
+     * @param timeout the close timeout, or null to wait the plugins close forever (default)
+     * @return This PluginFinder instance with the close timeout updated.
+     * @throws IllegalArgumentException if the timeout isn't positive
+     * @since 1.1.8
+     */
+    @NotNull PluginFinder setCloseTimeout(@Nullable Duration timeout);
+
+    /**
+     * Gets the maximum time every plugin can take to close at the shutdown hook.
+     *
+     * @return the close timeout, or null if there's no timeout
+     * @see #setCloseTimeout(Duration)
+     * @since 1.1.8
+     */
+    @Nullable Duration getCloseTimeout();
+
     /**
      * Determines whether a given {@link PluginInfo} matches the current filter criteria.
      *
@@ -624,6 +910,36 @@ public interface PluginFinder {
      */
     @NotNull PluginInfo @NotNull [] load(@NotNull Predicate<Class<?>> predicate) throws PluginInitializeException, IOException;
 
+    /**
+     * Loads the plugins that match the current filter criteria in background, returning immediately.
+     * <p>
+     * This default method loads all matching plugins by applying a predicate that always returns {@code true}.
+     *
+     * @return the handle of the load, with a future for each plugin and another one for all of them
+     * @see #loadAsync(Predicate)
+     * @since 1.1.8
+     */
+    default @NotNull PluginLoading loadAsync() {
+        return loadAsync((plugin) -> true);
+    }
+
+    /**
+     * Loads the plugins that match the current filter criteria and satisfy the given predicate in background,
+     * returning immediately. The plugins are scanned, built and started with the same dependency and priority
+     * ordering of {@link #load(Predicate)}, and the returned handle completes each plugin future as soon as it
+     * starts, so the application can continue after the plugins it depends on are running.
+     * <p>
+     * The load runs at its own thread (a virtual thread if the runtime supports it), and the plugins are still
+     * started at the {@link #setExecutor(Executor) executor} if defined. This finder shouldn't be changed while
+     * the load is running. Any failure of the load, including {@link PluginInitializeException} and
+     * {@link IOException}, completes the returned futures exceptionally instead of being thrown.
+     *
+     * @param predicate A predicate to test each Class object for further filtering.
+     * @return the handle of the load, with a future for each plugin and another one for all of them
+     * @since 1.1.8
+     */
+    @NotNull PluginLoading loadAsync(@NotNull Predicate<Class<?>> predicate);
+
     /**
      * Gets the plugin factory of this plugin finder instance. All the plugin finders must
      * have a plugin factory to specify exactly the factory the plugins will be loaded.
@@ -633,4 +949,27 @@ public interface PluginFinder {
      */
     @NotNull PluginFactory getFactory();
 
-}
\ No newline at end of file
+    // Jar Reader Enum
+
+    /**
+     * Enumerates the implementations available to read the classpath jars while searching for plugins.
+     *
+     * @since 1.1.8
+     */
+    enum JarReader {
+
+        /**
+         * Reads the jar central directory directly using a {@link java.util.zip.ZipFile}, filtering the entries
+         * by name and only inflating the candidate class files. This is the default reader.
+         */
+        ZIP_FILE,
+
+        /**
+         * Opens the jar as a zip {@link java.nio.file.FileSystem} and walks its directories. Slower and heavier
+         * on allocations than {@link #ZIP_FILE}, kept for compatibility and comparison.
+         */
+        FILE_SYSTEM
+
+    }
+
+}
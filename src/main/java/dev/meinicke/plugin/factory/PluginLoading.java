@@ -0,0 +1,67 @@
+package dev.meinicke.plugin.factory;
+
+import dev.meinicke.plugin.PluginInfo;
+import dev.meinicke.plugin.exception.PluginInitializeException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+/**
+ * A handle of an asynchronous plugins load, created by {@link PluginFinder#loadAsync()} or
+ * {@link PluginFinder#loadAsync(Predicate)}.
+ * <p>
+ * The load runs in background following the same dependency and priority ordering of {@link PluginFinder#load()},
+ * and this handle exposes a future for every plugin and another one for the whole load. A plugin future is
+ * completed as soon as that plugin starts, so the application can continue as soon as the plugins it
+ * needs are running, while the rest of them are still starting.
+ *
+ * <h3>Failures</h3>
+ * If the load fails (e.g. a plugin cannot be initialized, or an I/O error occurs while scanning), the
+ * {@link #getPlugins() load future} and every plugin future not completed yet are completed exceptionally
+ * with the failure.
+ * <p>
+ * The future of a plugin that will not start is completed exceptionally with a {@link PluginInitializeException}
+ * as soon as the loader knows it, while the rest of the load continues: when a handler suppresses the plugin,
+ * when it doesn't start within its start timeout, or when one of its dependencies didn't start in time. The
+ * futures of plugins that aren't part of the load (they don't exist or don't match the finder's filters) are
+ * completed exceptionally with an {@link IllegalArgumentException} when the load finishes.
+ *
+ * @since 1.1.8
+ */
+public interface PluginLoading {
+
+    /**
+     * Retrieves the future of a plugin of this load. The future is completed with the plugin info right after
+     * the plugin starts. The future of a {@link dev.meinicke.plugin.annotation.Lazy lazy} plugin, that is built but
+     * stays {@link PluginInfo.State#IDLE idle} until its first use, is completed normally when the load finishes.
+     * <p>
+     * If the plugin will not start (suppressed by a handler, start timeout or a dependency that didn't start in
+     * time), the future is completed exceptionally with a {@link PluginInitializeException} right away. See the
+     * failures section of this interface for the other failures.
+     * <p>
+     * This method can be called at any moment, before or after the plugin is started.
+     *
+     * @param reference the plugin class
+     * @return the future of the plugin
+     */
+    @NotNull CompletableFuture<PluginInfo> getPlugin(@NotNull Class<?> reference);
+
+    /**
+     * Retrieves the future of the whole load, it's completed with the same plugins that {@link PluginFinder#load()}
+     * would return, or exceptionally with the failure of the load (usually a {@link PluginInitializeException}).
+     *
+     * @return the future of all the loaded plugins
+     */
+    @NotNull CompletableFuture<@NotNull PluginInfo @NotNull []> getPlugins();
+
+    /**
+     * Checks if the load already finished, successfully or not.
+     *
+     * @return true if the load finished, false otherwise
+     */
+    default boolean isDone() {
+        return getPlugins().isDone();
+    }
+
+}
@@ -1,5 +1,6 @@
 package dev.meinicke.plugin.factory.handlers;
 
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Iterator;
@@ -96,6 +97,20 @@ public interface Handlers extends Iterable<PluginHandler> {
      */
     int size();
 
+    /**
+     * Returns a counter that changes every time a handler is added or removed, so the plugin loaders can
+     * detect changes without comparing the handlers.
+     * <p>
+     * Implementations that don't track their changes return {@code -1}, and are considered changed every time.
+     *
+     * @return The modification counter, or {@code -1} if the changes aren't tracked.
+     * @since 1.1.8
+     */
+    @ApiStatus.Internal
+    default int getVersion() {
+        return -1;
+    }
+
     /**
      * Determines whether this collection of {@link PluginHandler} instances is empty.
      * <p>
@@ -11,6 +11,7 @@ final class HandlersImpl implements Handlers {
     // Object
 
     private final @NotNull LinkedList<PluginHandler> list = new LinkedList<>();
+    private volatile int version = 0;
 
     public HandlersImpl() {
     }
@@ -19,32 +20,38 @@ final class HandlersImpl implements Handlers {
 
     @Override
     public boolean add(@NotNull PluginHandler handler) {
+        version++;
         return list.add(handler);
     }
 
     @Override
     public void add(int index, @NotNull PluginHandler handler) {
         list.add(index, handler);
+        version++;
     }
 
     @Override
     public void addFirst(@NotNull PluginHandler handler) {
         list.addLast(handler);
+        version++;
     }
 
     @Override
     public void addLast(@NotNull PluginHandler handler) {
         list.addLast(handler);
+        version++;
     }
 
     @Override
     public boolean remove(@NotNull PluginHandler handler) {
+        version++;
         return list.remove(handler);
     }
 
     @Override
     public void clear() {
         list.clear();
+        version++;
     }
 
     // Getters
@@ -54,6 +61,11 @@ final class HandlersImpl implements Handlers {
         return list.size();
     }
 
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
     // Iterator and stream
 
     @Override
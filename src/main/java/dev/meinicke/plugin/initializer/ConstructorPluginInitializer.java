@@ -14,8 +14,12 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 import java.io.Flushable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
@@ -37,8 +41,8 @@ import java.util.Objects;
  *
  * <p>Initialization procedure:</p>
  * <ol>
- *     <li>The class inspects the plugin reference to locate an appropriate constructor.</li>
- *     <li>The constructor is made accessible and invoked reflectively.</li>
+ *     <li>The class inspects the plugin reference to locate an appropriate constructor, only once per plugin class.</li>
+ *     <li>The constructor is converted into a cached method handle and invoked through it.</li>
  *     <li>Any exceptions thrown during construction are wrapped and rethrown as {@link PluginInitializeException}, except
  *     in rare unexpected conditions, where a {@link RuntimeException} is used instead.</li>
  *     <li>Upon successful instantiation, the plugin's state is transitioned to RUNNING, and the instance is tracked for
@@ -58,6 +62,43 @@ import java.util.Objects;
  */
 public final class ConstructorPluginInitializer implements PluginInitializer {
 
+    // Static initializers
+
+    /**
+     * The constructors of the plugin classes as method handles of type {@code (PluginContext)Object}, the no-argument
+     * constructors just ignore the context. The resolution failures aren't cached.
+     */
+    private static final @NotNull ClassValue<MethodHandle> CONSTRUCTORS = new ClassValue<MethodHandle>() {
+        @Override
+        protected @NotNull MethodHandle computeValue(@NotNull Class<?> reference) {
+            try {
+                return resolve(reference);
+            } catch (@NotNull ReflectiveOperationException e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        }
+    };
+
+    private static @NotNull MethodHandle resolve(@NotNull Class<?> reference) throws ReflectiveOperationException {
+        @NotNull Constructor<?> constructor;
+
+        try {
+            // First try using the constructor with the plugin context parameter
+            constructor = reference.getDeclaredConstructor(PluginContext.class);
+        } catch (NoSuchMethodException ignore) {
+            // try now using the blank constructor.
+            constructor = reference.getDeclaredConstructor();
+        }
+
+        @NotNull MethodHandle handle = Lookups.unreflect(constructor);
+
+        if (constructor.getParameterCount() == 0) {
+            handle = MethodHandles.dropArguments(handle, 0, PluginContext.class);
+        }
+
+        return handle.asType(MethodType.methodType(Object.class, PluginContext.class));
+    }
+
     // Object
 
     /**
@@ -135,28 +176,21 @@ public final class ConstructorPluginInitializer implements PluginInitializer {
 
             try {
                 // Retrieve constructor
-                @NotNull Constructor<?> constructor;
-
-                try {
-                    // First try using the constructor with the plugin context parameter
-                    constructor = getReference().getDeclaredConstructor(PluginContext.class);
-                } catch (NoSuchMethodException ignore) {
-                    // try now using the blank constructor.
-                    constructor = getReference().getDeclaredConstructor();
-                }
-
-                // Make it accessible
-                constructor.setAccessible(true);
+                @NotNull MethodHandle constructor = CONSTRUCTORS.get(getReference());
 
                 // Instantiate the plugin using its constructor.
-                if (constructor.getParameterCount() == 0) {
-                    this.instance = constructor.newInstance();
-                } else {
-                    this.instance = constructor.newInstance(getContext());
+                try {
+                    this.instance = (Object) constructor.invokeExact(getContext());
+                } catch (Throwable throwable) {
+                    throw new InvocationTargetException(throwable);
                 }
             } catch (Throwable throwable) {
                 setState(State.FAILED);
 
+                if (throwable instanceof UndeclaredThrowableException) {
+                    throwable = throwable.getCause();
+                }
+
                 if (throwable instanceof InvocationTargetException) {
                     if (throwable.getCause() instanceof PluginInitializeException) {
                         throw (PluginInitializeException) throwable.getCause();
@@ -0,0 +1,44 @@
+package dev.meinicke.plugin.initializer;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * Converts the reflective constructors and methods of the plugins into method handles. The handles are created using
+ * a private lookup in the plugin class when the plugin's module allows it, otherwise the member is made accessible
+ * by reflection as before.
+ */
+final class Lookups {
+
+    // Static initializers
+
+    public static @NotNull MethodHandle unreflect(@NotNull Constructor<?> constructor) throws IllegalAccessException {
+        try {
+            return MethodHandles.privateLookupIn(constructor.getDeclaringClass(), MethodHandles.lookup()).unreflectConstructor(constructor);
+        } catch (@NotNull IllegalAccessException ignore) {
+            // The plugin's package isn't open to this library
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor);
+        }
+    }
+    public static @NotNull MethodHandle unreflect(@NotNull Method method) throws IllegalAccessException {
+        try {
+            return MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup()).unreflect(method);
+        } catch (@NotNull IllegalAccessException ignore) {
+            // The plugin's package isn't open to this library
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        }
+    }
+
+    // Object
+
+    private Lookups() {
+        throw new UnsupportedOperationException("this class cannot be instantiated");
+    }
+
+}
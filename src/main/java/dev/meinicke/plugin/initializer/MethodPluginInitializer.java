@@ -16,18 +16,20 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 import java.io.Flushable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A plugin initializer that dynamically initializes and optionally tears down plugin components via statically defined methods
  * on the plugin class. This implementation, {@code MethodPluginInitializer}, leverages Java reflection to locate and invoke
  * static methods for the purpose of plugin lifecycle control — specifically, initialization and interruption (shutdown).
+ * The methods are located only once per class and name, and invoked through cached method handles.
  * <p>
  * <b>Initialization Strategy:</b><br>
  * The initializer will attempt to invoke a method (default name: {@code "initialize"}) declared on the plugin class.
@@ -129,6 +131,102 @@ import java.util.Objects;
  */
 public final class MethodPluginInitializer implements PluginInitializer {
 
+    // Static initializers
+
+    /**
+     * The initialization methods by class and name, as method handles of type {@code (PluginContext)Object}.
+     */
+    private static final @NotNull ClassValue<Map<String, MethodHandle>> INITIALIZERS = new ClassValue<Map<String, MethodHandle>>() {
+        @Override
+        protected @NotNull Map<String, MethodHandle> computeValue(@NotNull Class<?> reference) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    /**
+     * The interruption methods by class and name, as method handles of type {@code (Object)void}. The names without
+     * an interruption method are cached as empty.
+     */
+    private static final @NotNull ClassValue<Map<String, Optional<MethodHandle>>> INTERRUPTERS = new ClassValue<Map<String, Optional<MethodHandle>>>() {
+        @Override
+        protected @NotNull Map<String, Optional<MethodHandle>> computeValue(@NotNull Class<?> reference) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private static @NotNull MethodHandle getInitializationMethod(@NotNull Class<?> reference, @NotNull String name) throws ReflectiveOperationException {
+        @NotNull Map<String, MethodHandle> handles = INITIALIZERS.get(reference);
+        @Nullable MethodHandle handle = handles.get(name);
+
+        if (handle != null) {
+            return handle;
+        }
+
+        // Find the initialization method
+        @NotNull Method method;
+
+        try {
+            // First try to retrieve method with the context parameter
+            method = reference.getDeclaredMethod(name, PluginContext.class);
+        } catch (NoSuchMethodException ignore) {
+            // Not found, try to retrieve method without the plugin context parameter
+            method = reference.getDeclaredMethod(name);
+        }
+
+        // Verify that the initialize method is static; if not, throw an exception.
+        if (!Modifier.isStatic(method.getModifiers())) {
+            throw new IllegalStateException("the plugin's initialize method must be static");
+        }
+
+        // The methods without the context parameter just ignore it, and the void methods return null
+        handle = Lookups.unreflect(method);
+
+        if (method.getParameterCount() == 0) {
+            handle = MethodHandles.dropArguments(handle, 0, PluginContext.class);
+        }
+
+        handle = handle.asType(MethodType.methodType(Object.class, PluginContext.class));
+        handles.putIfAbsent(name, handle);
+
+        return handle;
+    }
+    private static @Nullable MethodHandle getInterruptionMethod(@NotNull Class<?> reference, @NotNull String name) throws IllegalAccessException {
+        @NotNull Map<String, Optional<MethodHandle>> handles = INTERRUPTERS.get(reference);
+        @Nullable Optional<MethodHandle> handle = handles.get(name);
+
+        if (handle == null) {
+            @Nullable Method method = null;
+            for (@NotNull Method target : reference.getDeclaredMethods()) {
+                if (!target.getName().equals(name)) {
+                    continue;
+                } else if (!Modifier.isStatic(target.getModifiers())) {
+                    continue;
+                } else if (target.getParameterCount() > 1) {
+                    continue;
+                }
+
+                method = target;
+                break;
+            }
+
+            if (method != null) {
+                // The methods without the instance parameter just ignore it
+                @NotNull MethodHandle found = Lookups.unreflect(method);
+
+                if (method.getParameterCount() == 0) {
+                    found = MethodHandles.dropArguments(found, 0, Object.class);
+                }
+
+                handle = Optional.of(found.asType(MethodType.methodType(void.class, Object.class)));
+            } else {
+                handle = Optional.empty();
+            }
+
+            handles.putIfAbsent(name, handle);
+        }
+
+        return handle.orElse(null);
+    }
+
     // Object
 
     /**
@@ -224,30 +322,14 @@ public final class MethodPluginInitializer implements PluginInitializer {
                 setState(State.STARTING);
                 handle("start", (handler) -> handler.start(this));
 
-                // Find the initialization method
-                @NotNull Method method;
-
-                try {
-                    // First try to retrieve method with the context parameter
-                    method = methodClass.getDeclaredMethod(methodName, PluginContext.class);
-                } catch (NoSuchMethodException ignore) {
-                    // Not found, try to retrieve method without the plugin context parameter
-                    method = methodClass.getDeclaredMethod(methodName);
-                }
-
-                // Make it accessible
-                method.setAccessible(true);
-
-                // Verify that the initialize method is static; if not, throw an exception.
-                if (!Modifier.isStatic(method.getModifiers())) {
-                    throw new IllegalStateException("the plugin's initialize method must be static");
-                }
+                // Find the initialization method, resolved only once per class and name
+                @NotNull MethodHandle method = getInitializationMethod(methodClass, methodName);
 
                 // Invoke the static initialization method. It may return an instance or be void.
-                if (method.getParameterCount() == 0) {
-                    this.instance = method.invoke(null);
-                } else {
-                    this.instance = method.invoke(null, getContext());
+                try {
+                    this.instance = (Object) method.invokeExact(getContext());
+                } catch (Throwable throwable) {
+                    throw new InvocationTargetException(throwable);
                 }
 
                 // Mark as running
@@ -314,28 +396,15 @@ public final class MethodPluginInitializer implements PluginInitializer {
 
             try {
                 try {
-                    @Nullable Method method = null;
-                    for (@NotNull Method target : methodClass.getDeclaredMethods()) {
-                        if (!target.getName().equals(methodName)) {
-                            continue;
-                        } else if (!Modifier.isStatic(target.getModifiers())) {
-                            continue;
-                        } else if (target.getParameterCount() > 1) {
-                            continue;
-                        }
-
-                        method = target;
-                        break;
-                    }
+                    @Nullable MethodHandle method = getInterruptionMethod(methodClass, methodName);
 
                     // If an interrupt method is found, invoke it. The method may accept one parameter (the plugin instance)
                     // or no parameters. If invoked, resource cleanup via Closeable/Flushable is bypassed.
                     if (method != null) {
-                        method.setAccessible(true);
-                        if (method.getParameterCount() == 1) {
-                            method.invoke(null, getInstance());
-                        } else {
-                            method.invoke(null);
+                        try {
+                            method.invokeExact(getInstance());
+                        } catch (Throwable throwable) {
+                            throw new InvocationTargetException(throwable);
                         }
                     } else if (getInstance() != null) {
                         try {
@@ -0,0 +1,237 @@
+package dev.meinicke.plugin.main;
+
+import dev.meinicke.plugin.Builder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.*;
+
+/**
+ * Topological scheduler of the plugin builders, using Kahn's algorithm. Each pending builder keeps its
+ * pending dependencies (the in-degree), and the builders without pending dependencies are kept at a queue
+ * ordered by {@link Builder#getPriority()} (ties keep the original order).
+ * <p>
+ * The scheduler is maintained incrementally: when a builder is completed (started or suppressed) its
+ * dependants are released, and when the handlers change the priority or dependencies of a builder it
+ * can be updated without organizing everything again. A builder taken from the queue stays pending
+ * (holding its dependants) until it's completed, so many builders can be starting at the same time.
+ * <p>
+ * Dependencies that aren't pending at this scheduler are considered satisfied.
+ */
+final class BuilderScheduler {
+
+    // Static initializers
+
+    private static final @NotNull Comparator<Node> ORDER = Comparator.<Node>comparingInt(node -> node.priority).thenComparingLong(node -> node.index);
+
+    /**
+     * Organizes the builders by dependencies and priority.
+     *
+     * @param builders the builders to organize
+     * @return the organized builders
+     * @throws IllegalStateException if there are cyclic dependencies
+     */
+    public static @NotNull Set<Builder> organize(@NotNull Collection<Builder> builders) {
+        @NotNull BuilderScheduler scheduler = new BuilderScheduler(builders);
+        @NotNull Set<Builder> sorted = new LinkedHashSet<>();
+
+        while (!scheduler.isEmpty()) {
+            @Nullable Builder builder = scheduler.poll();
+
+            if (builder == null) {
+                throw new IllegalStateException("cyclic or unresolved dependencies detected: " + scheduler.getPending());
+            }
+
+            sorted.add(builder);
+            scheduler.remove(builder);
+        }
+
+        return sorted;
+    }
+
+    // Object
+
+    private final @NotNull Map<Class<?>, Node> nodes = new LinkedHashMap<>();
+    private final @NotNull NavigableSet<Node> ready = new TreeSet<>(ORDER);
+
+    public BuilderScheduler(@NotNull Collection<Builder> builders) {
+        long index = 0;
+
+        for (@NotNull Builder builder : builders) {
+            nodes.put(builder.getReference(), new Node(builder, index++));
+        }
+        for (@NotNull Node node : nodes.values()) {
+            link(node);
+        }
+    }
+
+    // Getters
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * @return the builders that aren't taken neither completed yet, in the original order
+     */
+    public @Unmodifiable @NotNull List<Builder> getPending() {
+        @NotNull List<Builder> pending = new ArrayList<>(nodes.size());
+
+        for (@NotNull Node node : nodes.values()) {
+            if (!node.taken) pending.add(node.builder);
+        }
+
+        return Collections.unmodifiableList(pending);
+    }
+
+    /**
+     * @param builder the builder
+     * @return true if the builder isn't taken neither completed yet
+     */
+    public boolean isPending(@NotNull Builder builder) {
+        @Nullable Node node = nodes.get(builder.getReference());
+        return node != null && !node.taken;
+    }
+
+    // Modules
+
+    /**
+     * Takes the next builder to be started, the one without pending dependencies and with the lowest priority.
+     * The builder remains pending, holding its dependants, until it's {@link #remove(Builder) completed}.
+     *
+     * @return the next builder, or null if all the pending builders are taken or have pending dependencies
+     */
+    public @Nullable Builder poll() {
+        @Nullable Node node = ready.pollFirst();
+        if (node == null) return null;
+
+        node.taken = true;
+        return node.builder;
+    }
+
+    /**
+     * Returns a taken builder to the queue, used when the handlers changed the builder before it could be started.
+     *
+     * @param builder the taken builder
+     */
+    public void reschedule(@NotNull Builder builder) {
+        @Nullable Node node = nodes.get(builder.getReference());
+        if (node == null) return;
+
+        node.taken = false;
+        update(builder);
+    }
+
+    /**
+     * Completes the builder (started or suppressed), releasing all the builders that depend on it.
+     *
+     * @param builder the builder to complete
+     */
+    public void remove(@NotNull Builder builder) {
+        @Nullable Node node = nodes.remove(builder.getReference());
+        if (node == null) return;
+
+        ready.remove(node);
+        unlink(node);
+
+        // Release dependants
+        for (@NotNull Node dependant : node.dependants) {
+            dependant.dependencies.remove(node);
+
+            if (dependant.dependencies.isEmpty() && !dependant.taken) {
+                ready.add(dependant);
+            }
+        }
+    }
+
+    /**
+     * Discards the builder and every builder that depends on it (directly or not), without releasing them.
+     * It's used when the builder cannot be completed, so its dependants must never start.
+     *
+     * @param builder the builder to discard
+     * @return the dependants discarded together, in the discovery order
+     */
+    public @NotNull List<Builder> discard(@NotNull Builder builder) {
+        @NotNull List<Builder> discarded = new ArrayList<>();
+        @NotNull Deque<Node> queue = new ArrayDeque<>();
+
+        @Nullable Node node = nodes.get(builder.getReference());
+        if (node != null) queue.add(node);
+
+        while ((node = queue.poll()) != null) {
+            if (nodes.remove(node.builder.getReference()) == null) {
+                continue;
+            }
+
+            ready.remove(node);
+            unlink(node);
+
+            queue.addAll(node.dependants);
+            if (node.builder != builder) discarded.add(node.builder);
+        }
+
+        return discarded;
+    }
+
+    /**
+     * Updates the priority and dependencies of a pending builder, it must be called every time
+     * the handlers change the builder.
+     *
+     * @param builder the builder to update
+     */
+    public void update(@NotNull Builder builder) {
+        @Nullable Node node = nodes.get(builder.getReference());
+        if (node == null) return;
+
+        // The priority is part of the ready queue key, so it must leave the queue to change
+        ready.remove(node);
+        unlink(node);
+
+        node.priority = builder.getPriority();
+        link(node);
+    }
+
+    private void link(@NotNull Node node) {
+        for (@NotNull Class<?> dependency : node.builder.getDependencies()) {
+            @Nullable Node other = nodes.get(dependency);
+
+            if (other != null) {
+                node.dependencies.add(other);
+                other.dependants.add(node);
+            }
+        }
+
+        if (node.dependencies.isEmpty() && !node.taken) {
+            ready.add(node);
+        }
+    }
+    private void unlink(@NotNull Node node) {
+        for (@NotNull Node dependency : node.dependencies) {
+            dependency.dependants.remove(node);
+        }
+
+        node.dependencies.clear();
+    }
+
+    // Classes
+
+    private static final class Node {
+
+        private final @NotNull Builder builder;
+        private final long index;
+        private int priority;
+        private boolean taken = false;
+
+        private final @NotNull Set<Node> dependencies = new HashSet<>();
+        private final @NotNull Set<Node> dependants = new LinkedHashSet<>();
+
+        private Node(@NotNull Builder builder, long index) {
+            this.builder = builder;
+            this.index = index;
+            this.priority = builder.getPriority();
+        }
+
+    }
+
+}
@@ -1,30 +1,114 @@
 package dev.meinicke.plugin.main;
 
-import dev.meinicke.plugin.annotation.Category;
-import dev.meinicke.plugin.annotation.Dependency;
-import dev.meinicke.plugin.annotation.Initializer;
-import dev.meinicke.plugin.annotation.Plugin;
-import dev.meinicke.plugin.initializer.PluginInitializer;
+import dev.meinicke.plugin.annotation.*;
+import dev.meinicke.plugin.initializer.ConstructorPluginInitializer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
 
+import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
+/**
+ * Represents a single class file found while scanning the runtime. The class bytecode is only
+ * parsed using ASM, so the class itself will never be defined by a class loader unless the
+ * bytecode carries the {@link Plugin} annotation and matches the plugin finder filters.
+ */
 final class ClassData implements Closeable {
 
+    // Static initializers
+
+    private static final int OPCODE;
+
+    private static final @NotNull String PLUGIN = Type.getDescriptor(Plugin.class);
+    private static final @NotNull String CATEGORY = Type.getDescriptor(Category.class);
+    private static final @NotNull String CATEGORIES = Type.getDescriptor(Categories.class);
+    private static final @NotNull String DEPENDENCY = Type.getDescriptor(Dependency.class);
+    private static final @NotNull String DEPENDENCIES = Type.getDescriptor(Dependencies.class);
+    private static final @NotNull String INITIALIZER = Type.getDescriptor(Initializer.class);
+
+    /**
+     * The {@link Plugin} descriptor as it's stored at the class constant pool, every plugin
+     * class file contains these bytes.
+     */
+    private static final @NotNull byte[] PLUGIN_BYTES = PLUGIN.getBytes(StandardCharsets.UTF_8);
+
+    static {
+        double classVersion = Double.parseDouble(System.getProperty("java.class.version"));
+
+        if (classVersion >= 59) OPCODE = Opcodes.ASM9;
+        else if (classVersion >= 57) OPCODE = Opcodes.ASM8;
+        else if (classVersion >= 55) OPCODE = Opcodes.ASM7;
+        else if (classVersion >= 53) OPCODE = Opcodes.ASM6;
+        else if (classVersion == 52) OPCODE = Opcodes.ASM5;
+        else OPCODE = Opcodes.ASM4;
+    }
+
+    // Object
+
     private final @NotNull String name;
     private final @NotNull InputStream inputStream;
 
+    /**
+     * Held weakly, the class data may be memoized by the factory's scan session after the module layer is discarded.
+     */
+    private final @Nullable WeakReference<ClassLoader> classLoader;
+
+    // Bytecode data, only available after parsing
+    private boolean parsed = false;
+    private boolean plugin = false;
+
+    private @NotNull String pluginName = "";
+    private @NotNull String pluginDescription = "";
+    private @NotNull String initializer = ConstructorPluginInitializer.class.getName();
+
+    private final @NotNull List<String> categories = new ArrayList<>();
+    private final @NotNull List<String> dependencies = new ArrayList<>();
+
     public ClassData(@NotNull String name, @NotNull InputStream inputStream) {
+        this(name, inputStream, null);
+    }
+
+    /**
+     * Creates a class data of a class that is known to be defined by a specific class loader,
+     * like the classes of a module layer.
+     */
+    public ClassData(@NotNull String name, @NotNull InputStream inputStream, @Nullable ClassLoader classLoader) {
         this.name = name;
         this.inputStream = inputStream;
+        this.classLoader = classLoader != null ? new WeakReference<>(classLoader) : null;
+    }
+
+    /**
+     * Creates an already parsed plugin class data, used when the bytecode values
+     * are retrieved from an index instead of the class file.
+     */
+    ClassData(@NotNull String name, @NotNull String pluginName, @NotNull String pluginDescription, @NotNull String initializer, @NotNull Collection<String> categories, @NotNull Collection<String> dependencies) {
+        this.name = name;
+        this.inputStream = new ByteArrayInputStream(new byte[0]);
+        this.classLoader = null;
+
+        this.parsed = true;
+        this.plugin = true;
+
+        this.pluginName = pluginName;
+        this.pluginDescription = pluginDescription;
+        this.initializer = initializer;
+
+        this.categories.addAll(categories);
+        this.dependencies.addAll(dependencies);
     }
 
     // Getters
@@ -36,89 +120,192 @@ final class ClassData implements Closeable {
         return inputStream;
     }
 
+    /**
+     * @return the class loader that defines this class, or null if it's unknown and
+     * the plugin finder's class loaders should be used
+     */
+    public @Nullable ClassLoader getClassLoader() {
+        return classLoader != null ? classLoader.get() : null;
+    }
+
+    /**
+     * @return true if the class bytecode is annotated with {@link Plugin}
+     */
+    public boolean isPlugin() {
+        parse();
+        return plugin;
+    }
+
+    public @NotNull String getPluginName() {
+        parse();
+        return pluginName;
+    }
+    public @NotNull String getPluginDescription() {
+        parse();
+        return pluginDescription;
+    }
+
+    /**
+     * @return the fully-qualified name of the plugin initializer declared at the bytecode,
+     * {@link ConstructorPluginInitializer} by default.
+     */
+    public @NotNull String getInitializer() {
+        parse();
+        return initializer;
+    }
+
+    public @NotNull List<String> getCategories() {
+        parse();
+        return Collections.unmodifiableList(categories);
+    }
+    public @NotNull List<String> getDependencies() {
+        parse();
+        return Collections.unmodifiableList(dependencies);
+    }
+
     // Modules
 
+    /**
+     * Checks, using only the bytecode, if this class is a plugin that matches the finder's names,
+     * descriptions, categories, initializers and dependencies filters.
+     *
+     * @param finder the plugin finder with the filters
+     * @return true if this class is a plugin accepted by the finder filters
+     */
+    public boolean matches(@NotNull PluginFinderImpl finder) {
+        if (!isPlugin()) {
+            return false;
+        } else if (!finder.getNames().isEmpty() && !finder.getNames().contains(getPluginName())) {
+            return false;
+        } else if (!finder.getDescriptions().isEmpty() && !finder.getDescriptions().contains(getPluginDescription())) {
+            return false;
+        } else if (!finder.checkCategories(getCategories())) {
+            return false;
+        } else if (!finder.getInitializers().isEmpty() && finder.getInitializers().stream().map(Class::getName).noneMatch(getInitializer()::equals)) {
+            return false;
+        } else if (!finder.getDependencies().isEmpty()) {
+            for (@NotNull String dependency : getDependencies()) {
+                if (finder.getDependencies().stream().map(Class::getName).noneMatch(dependency::equals)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Loads the class using the class loader, only if the bytecode is a plugin accepted
+     * by the finder filters. Classes that aren't plugins will never be loaded.
+     *
+     * @param classLoader the class loader used to load the plugin class
+     * @param finder the plugin finder with the filters
+     * @return the plugin class, or null if it's not a valid plugin or cannot be loaded by the class loader
+     */
     public @Nullable Class<?> loadIfPlugin(@NotNull ClassLoader classLoader, @NotNull PluginFinderImpl finder) {
+        if (!matches(finder)) {
+            return null;
+        }
+
         try {
             @NotNull Class<?> reference = Class.forName(name, false, classLoader);
 
             if (reference.isAnnotationPresent(Plugin.class) && (finder.getClassLoaders().isEmpty() || finder.getClassLoaders().contains(reference.getClassLoader()))) {
                 return reference;
             }
-        } catch (ClassNotFoundException | @NotNull NoClassDefFoundError e) {
-            double classVersion = Double.parseDouble(System.getProperty("java.class.version"));
-
-            int opcodeTemp;
-            if (classVersion >= 59) opcodeTemp = Opcodes.ASM9;
-            else if (classVersion >= 57) opcodeTemp = Opcodes.ASM8;
-            else if (classVersion >= 55) opcodeTemp = Opcodes.ASM7;
-            else if (classVersion >= 53) opcodeTemp = Opcodes.ASM6;
-            else if (classVersion == 52) opcodeTemp = Opcodes.ASM5;
-            else opcodeTemp = Opcodes.ASM4;
-            final int opcode = opcodeTemp;
-
-            try {
-                @NotNull AtomicBoolean plugin = new AtomicBoolean(false);
-                @NotNull AtomicBoolean valid = new AtomicBoolean(true);
-
-                @NotNull ClassReader reader = new ClassReader(inputStream);
-                @NotNull ClassVisitor visitor = new ClassVisitor(opcode) {
-                    @Override
-                    public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
-                        final boolean isPlugin = descriptor.contains(Plugin.class.getName().replace('.', '/'));
-                        if (isPlugin) plugin.set(true);
-
-                        if (valid.get()) {
-                            return new AnnotationVisitor(opcode) {
-                                @Override
-                                public void visit(String name, Object value) {
-                                    if (isPlugin) {
-                                        if (!finder.getNames().isEmpty() && name.equals("name") && !finder.getNames().contains(value.toString())) {
-                                            valid.set(false);
-                                        } else if (!finder.getDescriptions().isEmpty() && name.equals("description") && !finder.getDescriptions().contains(value.toString())) {
-                                            valid.set(false);
-                                        }
-                                    } else if (descriptor.contains(Category.class.getName().replace('.', '/'))) {
-                                        if (!finder.getCategories().isEmpty() && name.equals("name") && finder.getCategories().stream().noneMatch(category -> category.equalsIgnoreCase(value.toString()))) {
-                                            valid.set(false);
-                                        }
-                                    } else if (descriptor.contains(Initializer.class.getName().replace('.', '/'))) {
-                                        //noinspection unchecked
-                                        if (!finder.getInitializers().isEmpty() && name.equals("type") && !finder.getInitializers().contains((Class<? extends PluginInitializer>) value)) {
-                                            valid.set(false);
-                                        }
-                                    } else if (descriptor.contains(Dependency.class.getName().replace('.', '/'))) {
-                                        if (!finder.getDependencies().isEmpty() && name.equals("type") && !finder.getDependencies().contains((Class<?>) value)) {
-                                            valid.set(false);
-                                        }
-                                    }
-
-                                    super.visit(name, value);
-                                }
-                            };
-                        }
+        } catch (@NotNull ClassNotFoundException | @NotNull LinkageError ignore) {
+        }
 
-                        return super.visitAnnotation(descriptor, visible);
-                    }
-                };
+        // Not a valid plugin
+        return null;
+    }
+
+    private synchronized void parse() {
+        if (parsed) return;
+        else parsed = true;
+
+        try {
+            @NotNull byte[] bytes = inputStream.readAllBytes();
+
+            // Fast reject, classes without the plugin descriptor at the constant pool aren't plugins
+            if (!contains(bytes, PLUGIN_BYTES)) {
+                return;
+            }
 
-                reader.accept(visitor, ClassReader.EXPAND_FRAMES);
+            // Only the class annotations are needed, skip all the methods code
+            @NotNull ClassReader reader = new ClassReader(bytes);
+            reader.accept(new ClassVisitor(OPCODE) {
+                @Override
+                public AnnotationVisitor visitAnnotation(@NotNull String descriptor, boolean visible) {
+                    if (descriptor.equals(PLUGIN)) {
+                        plugin = true;
+                    }
 
-                if (plugin.get() && valid.get()) try {
-                    return classLoader.loadClass(name);
-                } catch (@NotNull ClassNotFoundException ignore) {
-                    return null;
+                    return visitor(descriptor);
                 }
-            } catch (IOException ignore) {
+            }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        } catch (@NotNull IOException | @NotNull RuntimeException ignore) {
+            // Invalid or unreadable class file, it isn't a plugin
+            plugin = false;
+        }
+    }
+    private static boolean contains(@NotNull byte[] bytes, @NotNull byte[] search) {
+        byte first = search[0];
+        int last = bytes.length - search.length;
+
+        for (int index = 0; index <= last; index++) {
+            if (bytes[index] != first) {
+                continue;
+            }
+
+            int offset = 1;
+            while (offset < search.length && bytes[index + offset] == search[offset]) {
+                offset++;
+            }
+
+            if (offset == search.length) {
+                return true;
             }
         }
 
-        // Not a valid plugin
-        return null;
+        return false;
     }
+    private @Nullable AnnotationVisitor visitor(@NotNull String descriptor) {
+        if (descriptor.equals(CATEGORIES) || descriptor.equals(DEPENDENCIES)) {
+            // Repeatable containers, visit the annotations inside the "value" array
+            return new AnnotationVisitor(OPCODE) {
+                @Override
+                public AnnotationVisitor visitArray(@NotNull String name) {
+                    return new AnnotationVisitor(OPCODE) {
+                        @Override
+                        public AnnotationVisitor visitAnnotation(@Nullable String name, @NotNull String descriptor) {
+                            return visitor(descriptor);
+                        }
+                    };
+                }
+            };
+        } else if (!descriptor.equals(PLUGIN) && !descriptor.equals(CATEGORY) && !descriptor.equals(DEPENDENCY) && !descriptor.equals(INITIALIZER)) {
+            return null;
+        }
 
-    // Implementations
+        return new AnnotationVisitor(OPCODE) {
+            @Override
+            public void visit(@NotNull String name, @NotNull Object value) {
+                if (descriptor.equals(PLUGIN)) {
+                    if (name.equals("name")) pluginName = value.toString();
+                    else if (name.equals("description")) pluginDescription = value.toString();
+                } else if (descriptor.equals(CATEGORY) && name.equals("value")) {
+                    categories.add(value.toString());
+                } else if (descriptor.equals(DEPENDENCY) && name.equals("type") && value instanceof Type) {
+                    dependencies.add(((Type) value).getClassName());
+                } else if (descriptor.equals(INITIALIZER) && name.equals("type") && value instanceof Type) {
+                    initializer = ((Type) value).getClassName();
+                }
+            }
+        };
+    }
 
+    // Implementations
 
     @Override
     public @NotNull String toString() {
@@ -1,31 +1,56 @@
 package dev.meinicke.plugin.main;
 
+import dev.meinicke.plugin.factory.PluginFinder.JarReader;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.module.ModuleFinder;
 import java.lang.module.ModuleReader;
+import java.lang.module.ModuleReference;
+import java.lang.module.ResolvedModule;
 import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Consumer;
-import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * Utility to discover all available classes in the current JVM runtime,
  * including classes in classpath entries (jars and directories) and modules.
  * Does not use instrumentation.
+ * <p>
+ * Only the application modules are scanned by default, the JDK system modules never contain plugins.
+ * <p>
+ * When the plugin finder's scan parallelism is greater than one, the classpath entries
+ * and modules are scanned concurrently, and the directories are split by subdirectory.
  */
 final class Classes {
 
     // Static initializers
 
+    private static final @NotNull Logger log = LoggerFactory.getLogger(Classes.class);
+
     /**
      * Scans the classpath and modules for all .class files and returns their
      * fully-qualified names (without loading the classes).
+     * <p>
+     * The classpath entries at the ignored set (absolute and normalized paths) will not be scanned, and
+     * the classes outside the packages filter are skipped without being opened.
+     * <p>
+     * If the finder's scan parallelism is greater than one, the consumer will be called
+     * concurrently by multiple threads, so it must be thread-safe.
      */
-    public static void consumeAllClasses(@NotNull Consumer<@NotNull ClassData> consumer) throws IOException {
+    public static void consumeAllClasses(@NotNull PluginFinderImpl finder, @NotNull Map<String, Boolean> packages, @NotNull Set<Path> ignored, @NotNull Consumer<@NotNull ClassData> consumer) throws IOException {
+        @NotNull List<RecursiveAction> tasks = new ArrayList<>();
+
         // 1. Scan traditional classpath
         @NotNull String cp = System.getProperty("java.class.path", "");
 
@@ -35,62 +60,176 @@ final class Classes {
             for (String entry : entries) {
                 @NotNull Path path = Paths.get(entry);
 
-                try {
-                    if (Files.isDirectory(path)) {
-                        scanDirectory(path, consumer);
-                    } else if (entry.toLowerCase().endsWith(".jar") && Files.exists(path)) {
-                        scanJar(path, consumer);
-                    }
-                } catch (IOException e) {
-                    System.err.println("[Classes] Failed to scan entry: " + entry + "; " + e.getMessage());
+                // Skip entries that already have been consumed (e.g. from an index)
+                if (ignored.contains(path.toAbsolutePath().normalize())) {
+                    continue;
                 }
+
+                tasks.add(new EntryTask(entry, path, finder, packages, consumer));
             }
         }
 
         // 2. Scan modules (Java 9+)
-        ModuleFinder.ofSystem().findAll().forEach(ref -> {
-            try (@NotNull ModuleReader reader = ref.open()) {
-                reader.list().forEach(resource -> {
-                    if (resource.endsWith(".class")) {
-                        // Variables
-                        @NotNull String name = resource.replace('/', '.').substring(0, resource.length() - 6);
+        for (@NotNull Map.Entry<ModuleReference, Optional<ClassLoader>> entry : getModules(finder).entrySet()) {
+            tasks.add(new ModuleTask(entry.getKey(), entry.getValue().orElse(null), packages, consumer));
+        }
 
-                        // Start reading
-                        try (@Nullable InputStream stream = reader.open(name).orElse(null)) {
-                            if (stream != null) {
-                                consumer.accept(new ClassData(name, stream));
-                            }
-                        } catch (IOException ignore) {
-                        }
+        // Execute all the scans
+        int parallelism = finder.getScanParallelism();
+
+        if (parallelism > 1) {
+            @NotNull ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+            try {
+                pool.invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        invokeAll(tasks);
                     }
                 });
-            } catch (IOException e) {
-                // skip unreadable modules
+            } finally {
+                pool.shutdown();
             }
-        });
+        } else for (@NotNull RecursiveAction task : tasks) {
+            task.invoke();
+        }
     }
 
-    private static void scanDirectory(@NotNull Path root, @NotNull Consumer<@NotNull ClassData> consumer) throws IOException {
-        try (@NotNull Stream<Path> stream = Files.walk(root)) {
-            stream.filter(p -> p.toString().endsWith(".class"))
-                    .forEach(path -> {
-                        try (@NotNull InputStream input = Files.newInputStream(path)) {
-                            @NotNull String name = toClassName(root, path);
-                            consumer.accept(new ClassData(name, input));
-                        } catch (IOException ignore) {
-                        }
-                    });
+    /**
+     * Retrieves the modules that should be scanned, with the class loader of its layer (if any).
+     * <p>
+     * Only the application modules of the boot layer and the finder's layers are included, the JDK
+     * system modules are only included if the finder explicitly allows them. If the finder has module
+     * names, only the modules with these names are included.
+     */
+    static @NotNull Map<ModuleReference, Optional<ClassLoader>> getModules(@NotNull PluginFinderImpl finder) {
+        // Variables
+        @NotNull Map<ModuleReference, Optional<ClassLoader>> modules = new LinkedHashMap<>();
+        @NotNull Set<String> names = new HashSet<>();
+
+        @NotNull List<ModuleLayer> layers = new ArrayList<>();
+        layers.add(ModuleLayer.boot());
+        layers.addAll(finder.getLayers());
+
+        // Layers modules
+        for (@NotNull ModuleLayer layer : layers) {
+            for (@NotNull ResolvedModule module : layer.configuration().modules()) {
+                @NotNull ModuleReference reference = module.reference();
+
+                if (!finder.hasSystemModules() && isSystemModule(reference)) {
+                    continue;
+                } else if (!finder.getModuleNames().isEmpty() && !finder.getModuleNames().contains(module.name())) {
+                    continue;
+                } else if (!names.add(module.name())) {
+                    continue;
+                }
+
+                @Nullable ClassLoader classLoader;
+
+                try {
+                    classLoader = layer.findLoader(module.name());
+                } catch (@NotNull IllegalArgumentException | @NotNull SecurityException ignore) {
+                    classLoader = null;
+                }
+
+                modules.put(reference, Optional.ofNullable(classLoader));
+            }
+        }
+
+        // System modules that aren't at the boot layer
+        if (finder.hasSystemModules()) {
+            for (@NotNull ModuleReference reference : ModuleFinder.ofSystem().findAll()) {
+                @NotNull String name = reference.descriptor().name();
+
+                if (!finder.getModuleNames().isEmpty() && !finder.getModuleNames().contains(name)) {
+                    continue;
+                } else if (names.add(name)) {
+                    modules.put(reference, Optional.empty());
+                }
+            }
         }
+
+        // Finish
+        return modules;
+    }
+    private static boolean isSystemModule(@NotNull ModuleReference reference) {
+        return reference.location().map(uri -> "jrt".equalsIgnoreCase(uri.getScheme())).orElse(false);
+    }
+
+    private static void scanDirectory(@NotNull Path root, @NotNull Map<String, Boolean> packages, @NotNull Consumer<@NotNull ClassData> consumer) {
+        new DirectoryTask(root, root, packages, consumer).invoke();
     }
 
-    private static void scanJar(@NotNull Path jarPath, @NotNull Consumer<@NotNull ClassData> consumer) throws IOException {
-        try (@NotNull FileSystem fs = FileSystems.newFileSystem(jarPath, null)) {
-            for (@NotNull Path root : fs.getRootDirectories()) {
-                scanDirectory(root, consumer);
+    private static void scanJar(@NotNull Path jarPath, @NotNull PluginFinderImpl finder, @NotNull Map<String, Boolean> packages, @NotNull Consumer<@NotNull ClassData> consumer) throws IOException {
+        @Nullable Path cache = finder.getCacheDirectory();
+
+        if (cache != null) {
+            // Use the persistent index if the jar hasn't changed
+            @Nullable List<ClassData> plugins = ScanIndex.read(cache, jarPath);
+
+            if (plugins != null) {
+                plugins.forEach(consumer);
+                return;
+            }
+
+            // Scan the whole jar (without skipping packages) and index all the plugins found
+            @NotNull List<ClassData> found = Collections.synchronizedList(new ArrayList<>());
+            scanJar(jarPath, finder.getJarReader(), Collections.emptyMap(), data -> {
+                if (data.isPlugin()) found.add(data);
+                consumer.accept(data);
+            });
+
+            ScanIndex.write(cache, jarPath, found);
+        } else {
+            scanJar(jarPath, finder.getJarReader(), packages, consumer);
+        }
+    }
+    private static void scanJar(@NotNull Path jarPath, @NotNull JarReader reader, @NotNull Map<String, Boolean> packages, @NotNull Consumer<@NotNull ClassData> consumer) throws IOException {
+        if (reader == JarReader.FILE_SYSTEM) {
+            try (@NotNull FileSystem fs = FileSystems.newFileSystem(jarPath, null)) {
+                for (@NotNull Path root : fs.getRootDirectories()) {
+                    scanDirectory(root, packages, consumer);
+                }
+            }
+
+            return;
+        }
+
+        // Read the central directory, only the candidate class files are inflated
+        try (@NotNull ZipFile zip = new ZipFile(jarPath.toFile())) {
+            @NotNull Enumeration<? extends ZipEntry> entries = zip.entries();
+
+            while (entries.hasMoreElements()) {
+                @NotNull ZipEntry entry = entries.nextElement();
+                @NotNull String resource = entry.getName();
+
+                if (entry.isDirectory() || !resource.endsWith(".class") || resource.startsWith("META-INF/") || resource.endsWith("module-info.class")) {
+                    continue;
+                }
+
+                // Variables
+                @NotNull String name = resource.replace('/', '.').substring(0, resource.length() - 6);
+
+                // Skip classes outside the packages filter without inflating them
+                if (!PluginFinderImpl.checkPackageWithin(packages, getPackageName(name))) {
+                    continue;
+                }
+
+                try (@NotNull InputStream stream = zip.getInputStream(entry)) {
+                    consumer.accept(new ClassData(name, stream));
+                } catch (IOException ignore) {
+                }
             }
         }
     }
 
+    private static @NotNull String toPackageName(@NotNull Path root, @NotNull Path directory) {
+        return root.relativize(directory).toString().replace(File.separatorChar, '.').replace("/", ".");
+    }
+    private static @NotNull String getPackageName(@NotNull String className) {
+        int index = className.lastIndexOf('.');
+        return index >= 0 ? className.substring(0, index) : "";
+    }
     private static @NotNull String toClassName(@NotNull Path root, @NotNull Path classFile) {
         // Variables
         @NotNull Path rel = root.relativize(classFile);
@@ -106,4 +245,142 @@ final class Classes {
         throw new UnsupportedOperationException("this class cannot be instantiated");
     }
 
+    // Classes
+
+    private static final class EntryTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final @NotNull String entry;
+        private final @NotNull Path path;
+        private final @NotNull PluginFinderImpl finder;
+        private final @NotNull Map<String, Boolean> packages;
+        private final @NotNull Consumer<@NotNull ClassData> consumer;
+
+        private EntryTask(@NotNull String entry, @NotNull Path path, @NotNull PluginFinderImpl finder, @NotNull Map<String, Boolean> packages, @NotNull Consumer<@NotNull ClassData> consumer) {
+            this.entry = entry;
+            this.path = path;
+            this.finder = finder;
+            this.packages = packages;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                if (Files.isDirectory(path)) {
+                    scanDirectory(path, packages, consumer);
+                } else if (entry.toLowerCase().endsWith(".jar") && Files.exists(path)) {
+                    scanJar(path, finder, packages, consumer);
+                }
+            } catch (IOException e) {
+                log.warn("Cannot scan classpath entry \"{}\": {}", entry, e.getMessage());
+            }
+        }
+
+    }
+
+    /**
+     * Scans the class files of a directory, and each subdirectory as a separated task
+     * that will run concurrently if executed inside a fork/join pool.
+     * <p>
+     * Subdirectories and class files outside the packages filter are skipped without being opened.
+     */
+    private static final class DirectoryTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final @NotNull Path root;
+        private final @NotNull Path directory;
+        private final @NotNull Map<String, Boolean> packages;
+        private final @NotNull Consumer<@NotNull ClassData> consumer;
+
+        private DirectoryTask(@NotNull Path root, @NotNull Path directory, @NotNull Map<String, Boolean> packages, @NotNull Consumer<@NotNull ClassData> consumer) {
+            this.root = root;
+            this.directory = directory;
+            this.packages = packages;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            @NotNull List<DirectoryTask> subtasks = new ArrayList<>();
+            boolean within = PluginFinderImpl.checkPackageWithin(packages, toPackageName(root, directory));
+
+            try (@NotNull DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (@NotNull Path path : stream) {
+                    if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                        if (PluginFinderImpl.checkPackageTree(packages, toPackageName(root, path))) {
+                            subtasks.add(new DirectoryTask(root, path, packages, consumer));
+                        }
+                    } else if (within && path.toString().endsWith(".class")) {
+                        try (@NotNull InputStream input = Files.newInputStream(path)) {
+                            @NotNull String name = toClassName(root, path);
+                            consumer.accept(new ClassData(name, input));
+                        } catch (IOException ignore) {
+                        }
+                    }
+                }
+            } catch (IOException ignore) {
+            }
+
+            if (ForkJoinTask.inForkJoinPool()) {
+                invokeAll(subtasks);
+            } else for (@NotNull DirectoryTask task : subtasks) {
+                task.invoke();
+            }
+        }
+
+    }
+
+    private static final class ModuleTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final @NotNull ModuleReference reference;
+        private final @Nullable ClassLoader classLoader;
+        private final @NotNull Map<String, Boolean> packages;
+        private final @NotNull Consumer<@NotNull ClassData> consumer;
+
+        private ModuleTask(@NotNull ModuleReference reference, @Nullable ClassLoader classLoader, @NotNull Map<String, Boolean> packages, @NotNull Consumer<@NotNull ClassData> consumer) {
+            this.reference = reference;
+            this.classLoader = classLoader;
+            this.packages = packages;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            // Skip modules without any package within the packages filter
+            if (reference.descriptor().packages().stream().noneMatch(packge -> PluginFinderImpl.checkPackageWithin(packages, packge))) {
+                return;
+            }
+
+            try (@NotNull ModuleReader reader = reference.open()) {
+                reader.list().forEach(resource -> {
+                    if (resource.endsWith(".class") && !resource.endsWith("module-info.class")) {
+                        // Variables
+                        @NotNull String name = resource.replace('/', '.').substring(0, resource.length() - 6);
+
+                        // Skip classes outside the packages filter without opening them
+                        if (!PluginFinderImpl.checkPackageWithin(packages, getPackageName(name))) {
+                            return;
+                        }
+
+                        // Start reading
+                        try (@Nullable InputStream stream = reader.open(resource).orElse(null)) {
+                            if (stream != null) {
+                                consumer.accept(new ClassData(name, stream, classLoader));
+                            }
+                        } catch (IOException ignore) {
+                        }
+                    }
+                });
+            } catch (IOException e) {
+                // skip unreadable modules
+            }
+        }
+
+    }
+
 }
@@ -0,0 +1,245 @@
+package dev.meinicke.plugin.main;
+
+import dev.meinicke.plugin.PluginInfo;
+import dev.meinicke.plugin.exception.PluginInterruptException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Closes the plugins in parallel following the reverse order of the dependencies: a plugin is closed as soon as
+ * all of its dependants (between the plugins being closed) finished closing, so the time to close everything is
+ * bounded by the longest dependants chain instead of the sum of all the close times.
+ * <p>
+ * The closes run at the given executor, or at a temporary bounded pool if there isn't one, and each close
+ * respects the plugin's close timeout (see {@link Watchdog}). A plugin whose close fails or expires still
+ * releases its dependencies, so the shutdown always proceeds.
+ */
+final class CloseScheduler {
+
+    // Static initializers
+
+    private static final int PARALLELISM = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final @NotNull AtomicInteger THREAD_COUNT = new AtomicInteger(0);
+
+    /**
+     * Closes the plugins, waiting until all of them are closed.
+     *
+     * @param plugins the plugins to close, in the loading order
+     * @param filter the plugins that should really be closed, the others are only considered already closed
+     * @param executor the executor to close the plugins, or null to use a temporary bounded pool
+     * @param timeout the default close timeout, or null if there's no timeout
+     * @param failFast true to stop submitting closes after the first failure
+     * @return the plugins that failed to close with their failures, in the order they happened
+     */
+    public static @NotNull Map<PluginInfo, Throwable> close(@NotNull Collection<PluginInfo> plugins, @NotNull Predicate<PluginInfo> filter, @Nullable Executor executor, @Nullable Duration timeout, boolean failFast) {
+        return close(plugins, filter, plugin -> executor, plugin -> timeout, failFast);
+    }
+
+    /**
+     * Closes the plugins, waiting until all of them are closed. Each plugin is closed at its own executor
+     * and with its own default close timeout, e.g. the ones of the load that started it.
+     *
+     * @param plugins the plugins to close, in the loading order
+     * @param filter the plugins that should really be closed, the others are only considered already closed
+     * @param executors the executor to close each plugin, or null to use a temporary bounded pool
+     * @param timeouts the default close timeout of each plugin, or null if there's no timeout
+     * @param failFast true to stop submitting closes after the first failure
+     * @return the plugins that failed to close with their failures, in the order they happened
+     */
+    public static @NotNull Map<PluginInfo, Throwable> close(@NotNull Collection<PluginInfo> plugins, @NotNull Predicate<PluginInfo> filter, @NotNull Function<PluginInfo, @Nullable Executor> executors, @NotNull Function<PluginInfo, @Nullable Duration> timeouts, boolean failFast) {
+        if (plugins.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        @NotNull CloseScheduler scheduler = new CloseScheduler(plugins);
+
+        try {
+            return scheduler.run(filter, executors, timeouts, failFast);
+        } finally {
+            if (scheduler.pool != null) scheduler.pool.shutdown();
+        }
+    }
+
+    /**
+     * Throws the first failure of a close, with the other ones suppressed.
+     *
+     * @param map the failures returned by {@link #close(Collection, Predicate, Executor, Duration, boolean)}
+     * @throws PluginInterruptException if the first failure is a plugin interrupt exception
+     */
+    public static void rethrow(@NotNull Map<PluginInfo, Throwable> map) throws PluginInterruptException {
+        if (map.isEmpty()) {
+            return;
+        }
+
+        @NotNull List<Throwable> failures = new ArrayList<>(map.values());
+
+        @NotNull Throwable first = failures.get(0);
+        for (int index = 1; index < failures.size(); index++) {
+            first.addSuppressed(failures.get(index));
+        }
+
+        if (first instanceof PluginInterruptException) {
+            throw (PluginInterruptException) first;
+        } else if (first instanceof RuntimeException) {
+            throw (RuntimeException) first;
+        } else if (first instanceof Error) {
+            throw (Error) first;
+        }
+
+        throw new RuntimeException("cannot close plugins", first);
+    }
+
+    // Object
+
+    private final @NotNull Map<PluginInfo, Integer> pending = new HashMap<>();
+    private final @NotNull Deque<PluginInfo> ready = new ArrayDeque<>();
+
+    /**
+     * The temporary pool of the plugins without an executor, created only if needed.
+     */
+    private @Nullable ExecutorService pool;
+
+    private CloseScheduler(@NotNull Collection<PluginInfo> plugins) {
+        for (@NotNull PluginInfo plugin : plugins) {
+            pending.put(plugin, 0);
+        }
+
+        // Count the dependants of each plugin that are also being closed
+        for (@NotNull PluginInfo plugin : plugins) {
+            for (@NotNull PluginInfo dependency : plugin.getDependencies()) {
+                pending.computeIfPresent(dependency, (key, count) -> count + 1);
+            }
+        }
+
+        // The last loaded plugins are closed first
+        @NotNull List<PluginInfo> reversed = new ArrayList<>(plugins);
+        Collections.reverse(reversed);
+
+        for (@NotNull PluginInfo plugin : reversed) {
+            if (pending.get(plugin) == 0) ready.add(plugin);
+        }
+    }
+
+    // Modules
+
+    private @NotNull Map<PluginInfo, Throwable> run(@NotNull Predicate<PluginInfo> filter, @NotNull Function<PluginInfo, @Nullable Executor> executors, @NotNull Function<PluginInfo, @Nullable Duration> timeouts, boolean failFast) {
+        @NotNull Map<PluginInfo, Throwable> failures = new LinkedHashMap<>();
+        @NotNull BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+        int closing = 0;
+
+        while (true) {
+            // Submit all the plugins without dependants left
+            while (!ready.isEmpty() && (!failFast || failures.isEmpty())) {
+                @NotNull PluginInfo plugin = ready.poll();
+
+                if (filter.test(plugin)) {
+                    @Nullable Executor executor = executors.apply(plugin);
+                    submit(executor != null ? executor : getPool(), plugin, Watchdog.getCloseTimeout(plugin, timeouts.apply(plugin)), completions);
+                    closing++;
+                } else {
+                    release(plugin);
+                }
+            }
+
+            if (closing == 0) {
+                break;
+            }
+
+            // Wait the next plugin to finish closing
+            @NotNull Completion completion;
+
+            try {
+                completion = completions.take();
+                closing--;
+            } catch (@NotNull InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting the plugins to close", e);
+            }
+
+            if (completion.failure != null) failures.put(completion.plugin, completion.failure);
+            release(completion.plugin);
+        }
+
+        return failures;
+    }
+
+    private @NotNull Executor getPool() {
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(Math.min(PARALLELISM, pending.size()), runnable -> {
+                @NotNull Thread thread = new Thread(runnable, "Plug-ins Close Worker #" + THREAD_COUNT.getAndIncrement());
+                thread.setDaemon(true);
+
+                return thread;
+            });
+        }
+
+        return pool;
+    }
+
+    private void release(@NotNull PluginInfo plugin) {
+        for (@NotNull PluginInfo dependency : plugin.getDependencies()) {
+            @Nullable Integer count = pending.computeIfPresent(dependency, (key, value) -> value - 1);
+            if (count != null && count == 0) ready.add(dependency);
+        }
+    }
+
+    private static void submit(@NotNull Executor executor, @NotNull PluginInfo plugin, @Nullable Duration timeout, @NotNull BlockingQueue<Completion> completions) {
+        // Only the first of the close and the watchdog completes the plugin
+        @NotNull AtomicBoolean done = new AtomicBoolean(false);
+        @NotNull AtomicReference<Thread> thread = new AtomicReference<>();
+
+        @Nullable ScheduledFuture<?> deadline = timeout == null ? null : Watchdog.schedule(timeout, () -> {
+            if (done.compareAndSet(false, true)) {
+                Watchdog.expire(plugin, "close", timeout, thread.get());
+                completions.add(new Completion(plugin, null));
+            }
+        });
+
+        @NotNull Runnable runnable = () -> {
+            thread.set(Thread.currentThread());
+            @Nullable Throwable failure = null;
+
+            try {
+                plugin.close();
+            } catch (@NotNull Throwable throwable) {
+                failure = throwable;
+            }
+
+            if (done.compareAndSet(false, true)) {
+                if (deadline != null) deadline.cancel(false);
+                completions.add(new Completion(plugin, failure));
+            }
+        };
+
+        try {
+            executor.execute(runnable);
+        } catch (@NotNull RejectedExecutionException ignore) {
+            // The executor is already shut down
+            VirtualThreads.getExecutor().execute(runnable);
+        }
+    }
+
+    // Classes
+
+    private static final class Completion {
+
+        private final @NotNull PluginInfo plugin;
+        private final @Nullable Throwable failure;
+
+        private Completion(@NotNull PluginInfo plugin, @Nullable Throwable failure) {
+            this.plugin = plugin;
+            this.failure = failure;
+        }
+
+    }
+
+}
@@ -3,7 +3,6 @@ package dev.meinicke.plugin.main;
 import dev.meinicke.plugin.factory.InitializerFactory;
 import dev.meinicke.plugin.initializer.PluginInitializer;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 
 import java.io.IOException;
@@ -22,6 +21,16 @@ final class InitializerFactoryImpl implements InitializerFactory {
     private final @NotNull List<PluginInitializer> initializers = new CopyOnWriteArrayList<>();
     private volatile boolean closed = false;
 
+    /**
+     * The initializers by type, each type is instantiated only once, by the first lookup.
+     */
+    private final @NotNull ClassValue<PluginInitializer> cache = new ClassValue<PluginInitializer>() {
+        @Override
+        protected @NotNull PluginInitializer computeValue(@NotNull Class<?> reference) {
+            return create(reference);
+        }
+    };
+
     public InitializerFactoryImpl() {
     }
 
@@ -45,29 +54,37 @@ final class InitializerFactoryImpl implements InitializerFactory {
             throw new IllegalStateException("this initializer factory is closed.");
         }
 
-        // Start
-        @Nullable PluginInitializer initializer = initializers.stream().filter(i -> i.getClass().equals(reference)).findFirst().orElse(null);
-
-        if (initializer != null) {
-            //noinspection unchecked
-            return (T) initializer;
-        } else {
-            try {
-                // Constructor
-                @NotNull Constructor<T> constructor = reference.getDeclaredConstructor();
-                constructor.setAccessible(true);
-
-                return constructor.newInstance();
-            } catch (InvocationTargetException e) {
-                throw new RuntimeException("cannot execute plugin loader's constructor: " + reference, e);
-            } catch (NoSuchMethodException e) {
-                throw new RuntimeException("cannot find plugin loader's empty declared constructor: " + reference, e);
-            } catch (InstantiationException e) {
-                throw new RuntimeException("cannot instantiate plugin loader: " + reference, e);
-            } catch (IllegalAccessException e) {
-                throw new RuntimeException("cannot access plugin loader's constructor: " + reference, e);
+        // Finish
+        //noinspection unchecked
+        return (T) cache.get(reference);
+    }
+
+    private synchronized @NotNull PluginInitializer create(@NotNull Class<?> reference) {
+        // Another thread could have created it at the same time
+        for (@NotNull PluginInitializer initializer : initializers) {
+            if (initializer.getClass() == reference) {
+                return initializer;
             }
         }
+
+        try {
+            // Constructor
+            @NotNull Constructor<?> constructor = reference.getDeclaredConstructor();
+            constructor.setAccessible(true);
+
+            @NotNull PluginInitializer initializer = (PluginInitializer) constructor.newInstance();
+            initializers.add(initializer);
+
+            return initializer;
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException("cannot execute plugin loader's constructor: " + reference, e);
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException("cannot find plugin loader's empty declared constructor: " + reference, e);
+        } catch (InstantiationException e) {
+            throw new RuntimeException("cannot instantiate plugin loader: " + reference, e);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("cannot access plugin loader's constructor: " + reference, e);
+        }
     }
 
     // Modules
@@ -78,6 +95,10 @@ final class InitializerFactoryImpl implements InitializerFactory {
         else closed = true;
 
         // Clear cache
+        for (@NotNull PluginInitializer initializer : initializers) {
+            cache.remove(initializer.getClass());
+        }
+
         initializers.clear();
     }
 
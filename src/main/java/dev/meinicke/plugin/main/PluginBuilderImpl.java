@@ -2,17 +2,12 @@ package dev.meinicke.plugin.main;
 
 import dev.meinicke.plugin.Builder;
 import dev.meinicke.plugin.PluginInfo;
-import dev.meinicke.plugin.annotation.Category;
-import dev.meinicke.plugin.annotation.Dependency;
-import dev.meinicke.plugin.annotation.Initializer;
-import dev.meinicke.plugin.annotation.Priority;
 import dev.meinicke.plugin.category.PluginCategory;
 import dev.meinicke.plugin.context.PluginContext;
 import dev.meinicke.plugin.exception.InvalidPluginException;
 import dev.meinicke.plugin.factory.InitializerFactory;
 import dev.meinicke.plugin.factory.PluginFactory;
 import dev.meinicke.plugin.factory.handlers.Handlers;
-import dev.meinicke.plugin.initializer.ConstructorPluginInitializer;
 import dev.meinicke.plugin.initializer.PluginInitializer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -42,6 +37,7 @@ final class PluginBuilderImpl implements Builder {
 
     private final @NotNull Set<Class<?>> dependencies = new LinkedHashSet<>();
     private int priority = 0;
+    private boolean lazy;
 
     private final @NotNull Handlers handlers = Handlers.create();
 
@@ -56,10 +52,14 @@ final class PluginBuilderImpl implements Builder {
         this.name = name;
         this.description = description;
 
+        // Annotations
+        @NotNull PluginDescriptor descriptor = PluginDescriptor.of(reference);
+
         // Priority
-        if (reference.isAnnotationPresent(Priority.class)) {
-            this.priority = reference.getAnnotation(Priority.class).value();
-        }
+        this.priority = descriptor.getPriority();
+
+        // Lazy
+        this.lazy = descriptor.isLazy();
 
         // Verifications
         if (context.getPluginClass() != reference) {
@@ -67,10 +67,7 @@ final class PluginBuilderImpl implements Builder {
         }
 
         // Dependencies
-        for (@NotNull Dependency annotation : reference.getAnnotationsByType(Dependency.class)) {
-            // Variables
-            @NotNull Class<?> dependency = annotation.type();
-
+        for (@NotNull Class<?> dependency : descriptor.getDependencies()) {
             // Check issues
             checkDependency(dependency);
 
@@ -79,17 +76,10 @@ final class PluginBuilderImpl implements Builder {
         }
 
         // Initializer
-        @NotNull Class<? extends PluginInitializer> initializerClass = ConstructorPluginInitializer.class;
-        if (reference.isAnnotationPresent(Initializer.class)) {
-            initializerClass = reference.getAnnotation(Initializer.class).type();
-        }
-
-        this.initializer = initializerFactory.getInitializer(initializerClass);
+        this.initializer = initializerFactory.getInitializer(descriptor.getInitializer());
 
         // Categories
-        for (@NotNull Category annotation : reference.getAnnotationsByType(Category.class)) {
-            categories.add(annotation.value());
-        }
+        categories.addAll(descriptor.getCategories());
     }
 
     // Getters
@@ -97,9 +87,7 @@ final class PluginBuilderImpl implements Builder {
     private void checkDependency(@NotNull Class<?> reference) {
         if (reference == getReference()) {
             throw new InvalidPluginException(reference, "the plugin cannot have a dependency on itself");
-        } else for (@NotNull Dependency a : reference.getAnnotationsByType(Dependency.class)) {
-            @NotNull Class<?> dependency = a.type();
-
+        } else for (@NotNull Class<?> dependency : PluginDescriptor.of(reference).getDependencies()) {
             if (dependency == reference) {
                 throw new InvalidPluginException(reference, "cyclic dependency between '" + reference.getName() + "' and '" + dependency.getName() + "'.");
             }
@@ -149,6 +137,11 @@ final class PluginBuilderImpl implements Builder {
         return priority;
     }
 
+    @Override
+    public boolean isLazy() {
+        return lazy;
+    }
+
     @Override
     public @NotNull PluginInitializer getInitializer() {
         return initializer;
@@ -242,6 +235,12 @@ final class PluginBuilderImpl implements Builder {
         return this;
     }
 
+    @Override
+    public @NotNull Builder lazy(boolean lazy) {
+        this.lazy = lazy;
+        return this;
+    }
+
     @Override
     public @NotNull Builder initializer(@NotNull Class<? extends PluginInitializer> initializer) {
         this.initializer = getInitializerFactory().getInitializer(initializer);
@@ -32,7 +32,7 @@ final class PluginContextImpl implements PluginContext {
         this.finder = finder;
 
         // Retrieve attributes
-        for (@NotNull Attribute attribute : pluginClass.getAnnotationsByType(Attribute.class)) {
+        for (@NotNull Attribute attribute : PluginDescriptor.of(pluginClass).getAttributes()) {
             @NotNull String key = attribute.key();
             @NotNull Class<?> type = attribute.type();
             @NotNull Object object;
@@ -0,0 +1,179 @@
+package dev.meinicke.plugin.main;
+
+import dev.meinicke.plugin.annotation.*;
+import dev.meinicke.plugin.initializer.ConstructorPluginInitializer;
+import dev.meinicke.plugin.initializer.PluginInitializer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.*;
+
+/**
+ * The annotations of a plugin class, read by reflection only once per class and shared by the finders, loaders,
+ * builders and contexts. The descriptor is immutable, the annotation values never change at runtime.
+ */
+final class PluginDescriptor {
+
+    // Static initializers
+
+    private static final @NotNull ClassValue<PluginDescriptor> DESCRIPTORS = new ClassValue<PluginDescriptor>() {
+        @Override
+        protected @NotNull PluginDescriptor computeValue(@NotNull Class<?> reference) {
+            return new PluginDescriptor(reference);
+        }
+    };
+
+    /**
+     * @param reference the plugin class
+     * @return the descriptor of the class, computed at the first call
+     */
+    public static @NotNull PluginDescriptor of(@NotNull Class<?> reference) {
+        return DESCRIPTORS.get(reference);
+    }
+
+    // Object
+
+    private final @NotNull Class<?> reference;
+    private final boolean plugin;
+
+    private final @Nullable String name;
+    private final @Nullable String description;
+
+    private final @NotNull Class<? extends PluginInitializer> initializer;
+    private final int priority;
+    private final boolean lazy;
+    private final @Nullable Timeout timeout;
+
+    private final @Unmodifiable @NotNull List<String> categories;
+    private final @Unmodifiable @NotNull Set<Class<?>> dependencies;
+    private final @Unmodifiable @NotNull List<Attribute> attributes;
+    private final @Unmodifiable @NotNull List<RequireMetadata> requiredMetadata;
+
+    private PluginDescriptor(@NotNull Class<?> reference) {
+        this.reference = reference;
+
+        // Plugin
+        @Nullable Plugin annotation = reference.getAnnotation(Plugin.class);
+        this.plugin = annotation != null;
+        this.name = annotation != null && !annotation.name().isEmpty() ? annotation.name() : null;
+        this.description = annotation != null && !annotation.description().isEmpty() ? annotation.description() : null;
+
+        // Initializer, priority, lazy and timeout
+        @Nullable Initializer initializer = reference.getAnnotation(Initializer.class);
+        this.initializer = initializer != null ? initializer.type() : ConstructorPluginInitializer.class;
+
+        @Nullable Priority priority = reference.getAnnotation(Priority.class);
+        this.priority = priority != null ? priority.value() : 0;
+
+        this.lazy = reference.isAnnotationPresent(Lazy.class);
+        this.timeout = reference.getAnnotation(Timeout.class);
+
+        // Categories
+        @NotNull List<String> categories = new ArrayList<>();
+        for (@NotNull Category category : reference.getAnnotationsByType(Category.class)) {
+            categories.add(category.value());
+        }
+        this.categories = Collections.unmodifiableList(categories);
+
+        // Dependencies
+        @NotNull Set<Class<?>> dependencies = new LinkedHashSet<>();
+        for (@NotNull Dependency dependency : reference.getAnnotationsByType(Dependency.class)) {
+            dependencies.add(dependency.type());
+        }
+        this.dependencies = Collections.unmodifiableSet(dependencies);
+
+        // Attributes and metadata
+        this.attributes = Collections.unmodifiableList(Arrays.asList(reference.getAnnotationsByType(Attribute.class)));
+        this.requiredMetadata = Collections.unmodifiableList(Arrays.asList(reference.getAnnotationsByType(RequireMetadata.class)));
+    }
+
+    // Getters
+
+    public @NotNull Class<?> getReference() {
+        return reference;
+    }
+
+    /**
+     * @return true if the class is annotated with {@link Plugin}
+     */
+    public boolean isPlugin() {
+        return plugin;
+    }
+
+    /**
+     * @return the plugin name, or null if it's empty or the class isn't a plugin
+     */
+    public @Nullable String getName() {
+        return name;
+    }
+    /**
+     * @return the plugin description, or null if it's empty or the class isn't a plugin
+     */
+    public @Nullable String getDescription() {
+        return description;
+    }
+
+    public @NotNull Class<? extends PluginInitializer> getInitializer() {
+        return initializer;
+    }
+    public int getPriority() {
+        return priority;
+    }
+    public boolean isLazy() {
+        return lazy;
+    }
+    public @Nullable Timeout getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return the category names, in the declaration order
+     */
+    public @Unmodifiable @NotNull List<String> getCategories() {
+        return categories;
+    }
+    /**
+     * @return the dependency classes, in the declaration order
+     */
+    public @Unmodifiable @NotNull Set<Class<?>> getDependencies() {
+        return dependencies;
+    }
+    public @Unmodifiable @NotNull List<Attribute> getAttributes() {
+        return attributes;
+    }
+    public @Unmodifiable @NotNull List<RequireMetadata> getRequiredMetadata() {
+        return requiredMetadata;
+    }
+
+    /**
+     * @param key the attribute key, case-insensitive
+     * @return the first attribute with the key, or null if there's none
+     */
+    public @Nullable Attribute getAttribute(@NotNull String key) {
+        for (@NotNull Attribute attribute : attributes) {
+            if (attribute.key().equalsIgnoreCase(key)) return attribute;
+        }
+
+        return null;
+    }
+    /**
+     * @param key the metadata key, case-insensitive
+     * @return the first required metadata with the key, or null if there's none
+     */
+    public @Nullable RequireMetadata getRequiredMetadata(@NotNull String key) {
+        for (@NotNull RequireMetadata metadata : requiredMetadata) {
+            if (metadata.key().equalsIgnoreCase(key)) return metadata;
+        }
+
+        return null;
+    }
+
+    // Implementations
+
+    @Override
+    public @NotNull String toString() {
+        return "PluginDescriptor{" + reference.getName() + "}";
+    }
+
+}
@@ -14,12 +14,18 @@ import dev.meinicke.plugin.factory.handlers.PluginHandler;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
 
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 final class PluginFactoryImpl implements PluginFactory {
@@ -37,10 +43,51 @@ final class PluginFactoryImpl implements PluginFactory {
 
     // Object
 
-    private final @NotNull Map<String, PluginCategory> categories = new HashMap<>();
+    private final @NotNull Map<String, PluginCategory> categories = new ConcurrentHashMap<>();
+
+    /**
+     * Changes every time a category is registered, replaced or removed, the loaders only call the accept
+     * handlers of the categories again when it changes.
+     */
+    private final @NotNull AtomicInteger categoriesVersion = new AtomicInteger(0);
     private final @NotNull Handlers handlers = Handlers.create();
+    private final @NotNull ScanSession session = new ScanSession();
+
+    private final @NotNull Map<Class<?>, PluginInfo> plugins = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * The registered plugins in the dependency order, cached until the next registration. A plugin is only built
+     * after all of its dependencies are registered, so the registration order is already a dependency order.
+     */
+    private volatile @NotNull PluginInfo @Nullable [] order;
+
+    /**
+     * The registered plugins by name, the plugins without a name aren't indexed. If more than one plugin has the
+     * same name, the first registered one is kept, as the name retrieves always returned the first in the order.
+     */
+    private final @NotNull Map<String, PluginInfo> names = new ConcurrentHashMap<>();
+
+    /**
+     * The registered plugins of each category, by the lower case category name. The categories are equal by their
+     * names, so every instance of a category shares the same members.
+     */
+    private final @NotNull Map<String, Set<PluginInfo>> members = new ConcurrentHashMap<>();
+
+    /**
+     * The registered lazy plugins that weren't started yet, see {@link dev.meinicke.plugin.annotation.Lazy}.
+     */
+    private final @NotNull Map<Class<?>, LazyPlugin> lazy = new ConcurrentHashMap<>();
+
+    /**
+     * The shutdown hook of the plugins loaded with a shutdown hook, or null if there's none.
+     */
+    private @Nullable ShutdownHookThread hook;
 
-    final @NotNull Map<Class<?>, PluginInfo> plugins = new LinkedHashMap<>();
+    /**
+     * Marks the threads that are building plugins, the retrieves made by the builders and handlers of the
+     * plugins (e.g. to resolve the dependencies) don't start the lazy plugins.
+     */
+    final @NotNull ThreadLocal<Boolean> building = ThreadLocal.withInitial(() -> false);
 
     public PluginFactoryImpl() {
         // Default categories
@@ -81,11 +128,79 @@ final class PluginFactoryImpl implements PluginFactory {
 
     // Getters
 
+    /**
+     * @return an unmodifiable snapshot of the registered plugins, safe to iterate while plugins are being started in parallel
+     */
+    @Unmodifiable @NotNull List<PluginInfo> getPlugins() {
+        return Collections.unmodifiableList(Arrays.asList(getOrder()));
+    }
+
+    /**
+     * @return the registered plugins in the dependency order (dependencies first), the array is shared and must not be modified
+     */
+    @NotNull PluginInfo @NotNull [] getOrder() {
+        @NotNull PluginInfo @Nullable [] order = this.order;
+        if (order != null) return order;
+
+        synchronized (plugins) {
+            if (this.order == null) {
+                this.order = plugins.values().toArray(new PluginInfo[0]);
+            }
+
+            return this.order;
+        }
+    }
+
+    /**
+     * @param reference the plugin class
+     * @return true if the plugin is registered at this factory
+     */
+    boolean isRegistered(@NotNull Class<?> reference) {
+        return plugins.containsKey(reference);
+    }
+
+    /**
+     * Registers a built plugin, its dependencies must be already registered.
+     *
+     * @param info the plugin
+     */
+    void register(@NotNull PluginInfo info) {
+        synchronized (plugins) {
+            @Nullable PluginInfo previous = plugins.put(info.getReference(), info);
+            order = null;
+
+            // The replaced plugin could have another name (e.g. changed by a builder handler)
+            if (previous != null && previous.getName() != null && names.remove(previous.getName(), previous)) {
+                // Index the next registered plugin with the same name, if any
+                for (@NotNull PluginInfo plugin : plugins.values()) {
+                    if (previous.getName().equals(plugin.getName())) {
+                        names.putIfAbsent(plugin.getName(), plugin);
+                        break;
+                    }
+                }
+            }
+            if (info.getName() != null) {
+                names.putIfAbsent(info.getName(), info);
+            }
+
+            // Category members
+            if (previous != null) {
+                for (@NotNull Set<PluginInfo> set : members.values()) {
+                    set.remove(previous);
+                }
+            }
+            for (@NotNull PluginCategory category : info.getCategories()) {
+                members.computeIfAbsent(category.getName().toLowerCase(), k -> ConcurrentHashMap.newKeySet()).add(info);
+            }
+        }
+    }
+
     @Override
     public @NotNull PluginInfo retrieve(@NotNull Class<?> reference) {
         @Nullable PluginInfo info = plugins.getOrDefault(reference, null);
 
         if (info != null) {
+            touch(info);
             return info;
         } else if (reference.isAnnotationPresent(Plugin.class)) {
             throw new IllegalArgumentException("the plugin '" + reference.getName() + "' isn't initialized yet");
@@ -95,7 +210,15 @@ final class PluginFactoryImpl implements PluginFactory {
     }
     @Override
     public @NotNull PluginInfo retrieve(@NotNull String name) {
-        return plugins.values().stream().filter(plugin -> Objects.equals(plugin.getName(), name)).findFirst().orElseThrow(() -> new IllegalArgumentException("there's no plugin with name '" + name + "'"));
+        @Nullable PluginInfo info = names.get(name);
+
+        if (info == null) {
+            throw new IllegalArgumentException("there's no plugin with name '" + name + "'");
+        }
+
+        touch(info);
+
+        return info;
     }
 
     @Override
@@ -103,16 +226,20 @@ final class PluginFactoryImpl implements PluginFactory {
         return handlers;
     }
 
+    public @NotNull ScanSession getScanSession() {
+        return session;
+    }
+
     // Handlers
 
     @Override
     public @NotNull PluginCategory getCategory(@NotNull String name) {
-        return categories.computeIfAbsent(name.toLowerCase(), k -> new AbstractPluginCategory(name) {});
+        return categories.computeIfAbsent(name.toLowerCase(), k -> create(name));
     }
     @Override
     public @NotNull Optional<PluginCategory> getCategory(@NotNull String name, boolean create) {
         if (create) {
-            return Optional.of(categories.computeIfAbsent(name.toLowerCase(), k -> new AbstractPluginCategory(name) {}));
+            return Optional.of(categories.computeIfAbsent(name.toLowerCase(), k -> create(name)));
         } else {
             return Optional.ofNullable(categories.getOrDefault(name.toLowerCase(), null));
         }
@@ -125,6 +252,41 @@ final class PluginFactoryImpl implements PluginFactory {
     @Override
     public void setCategory(@NotNull PluginCategory category) {
         categories.put(category.getName().toLowerCase(), category);
+        categoriesVersion.incrementAndGet();
+    }
+
+    @Override
+    public @NotNull Set<PluginInfo> getMembers(@NotNull PluginCategory category) {
+        @Nullable Set<PluginInfo> set = members.get(category.getName().toLowerCase());
+        return set != null ? Collections.unmodifiableSet(set) : Collections.emptySet();
+    }
+
+    @Override
+    public void join(@NotNull PluginInfo info, @NotNull PluginCategory category) {
+        synchronized (plugins) {
+            if (plugins.get(info.getReference()) == info) {
+                members.computeIfAbsent(category.getName().toLowerCase(), k -> ConcurrentHashMap.newKeySet()).add(info);
+            }
+        }
+    }
+    @Override
+    public void leave(@NotNull PluginInfo info, @NotNull PluginCategory category) {
+        synchronized (plugins) {
+            @Nullable Set<PluginInfo> set = members.get(category.getName().toLowerCase());
+            if (set != null) set.remove(info);
+        }
+    }
+
+    private @NotNull PluginCategory create(@NotNull String name) {
+        categoriesVersion.incrementAndGet();
+        return new AbstractPluginCategory(name) {};
+    }
+
+    /**
+     * @return a counter that changes every time a category is registered, replaced or removed
+     */
+    int getCategoriesVersion() {
+        return categoriesVersion.get();
     }
 
     // Instances
@@ -141,19 +303,12 @@ final class PluginFactoryImpl implements PluginFactory {
 
     @Override
     public void interrupt(@NotNull ClassLoader loader, @NotNull String packge, boolean recursive) throws PluginInterruptException {
-        @NotNull List<PluginInfo> plugins = new LinkedList<>(PluginFactoryImpl.this.plugins.values());
-        Collections.reverse(plugins);
-
-        for (@NotNull PluginInfo info : plugins) {
+        interrupt(info -> {
             @NotNull String two = info.getReference().getPackage().getName();
             boolean isWithin = recursive ? two.startsWith(packge) : two.equals(packge);
 
-            if (info.getReference().getClassLoader().equals(loader) && !isWithin) {
-                continue;
-            }
-
-            info.close();
-        }
+            return !info.getReference().getClassLoader().equals(loader) || isWithin;
+        });
     }
     @Override
     public @NotNull PluginInfo @NotNull [] initialize(@NotNull ClassLoader loader, @NotNull String packge, boolean recursive) throws PluginInitializeException, IOException {
@@ -203,16 +358,7 @@ final class PluginFactoryImpl implements PluginFactory {
 
     @Override
     public void interrupt(@NotNull ClassLoader loader) throws PluginInterruptException {
-        @NotNull List<PluginInfo> plugins = new LinkedList<>(PluginFactoryImpl.this.plugins.values());
-        Collections.reverse(plugins);
-
-        for (@NotNull PluginInfo info : plugins) {
-            @NotNull Class<?> reference = info.getReference();
-
-            if (reference.getClassLoader().equals(loader)) {
-                info.close();
-            }
-        }
+        interrupt(info -> info.getReference().getClassLoader().equals(loader));
     }
     @Override
     @ApiStatus.Experimental
@@ -231,11 +377,156 @@ final class PluginFactoryImpl implements PluginFactory {
     }
     @Override
     public void interruptAll() throws PluginInterruptException {
-        @NotNull List<PluginInfo> plugins = new LinkedList<>(PluginFactoryImpl.this.plugins.values());
-        Collections.reverse(plugins);
+        interrupt(info -> true);
+    }
+
+    private void interrupt(@NotNull Predicate<PluginInfo> filter) throws PluginInterruptException {
+        try {
+            CloseScheduler.rethrow(CloseScheduler.close(getPlugins(), filter, (Executor) null, null, true));
+        } finally {
+            // The interrupted plugins must not be closed again by the shutdown hook
+            unhook(info -> filter.test(info) && info.getState() != PluginInfo.State.RUNNING);
+        }
+    }
+
+    // Shutdown hook
+
+    /**
+     * Closes the plugins of a load when the JVM shuts down. The factory has a single shutdown hook for all the
+     * loads, installed with the first of them and removed when all of its plugins are interrupted.
+     *
+     * @param plugins the plugins of the load
+     * @param executor the executor to close the plugins, or null to use a temporary pool
+     * @param timeout the close timeout of the plugins, or null if there's no timeout
+     * @return the factory's shutdown hook
+     */
+    synchronized @NotNull ShutdownHookThread hook(@NotNull Collection<PluginInfo> plugins, @Nullable Executor executor, @Nullable Duration timeout) {
+        if (hook == null) {
+            hook = new ShutdownHookThread(this);
+            Runtime.getRuntime().addShutdownHook(hook);
+        }
+
+        hook.add(plugins, executor, timeout);
+        return hook;
+    }
+    private synchronized void unhook(@NotNull Predicate<PluginInfo> filter) {
+        if (hook == null) {
+            return;
+        }
+
+        hook.remove(filter);
+
+        if (hook.isEmpty()) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(hook);
+            } catch (@NotNull IllegalStateException ignore) {
+                // The JVM is already shutting down
+            }
+
+            hook = null;
+        }
+    }
+
+    // Lazy plugins
+
+    /**
+     * Registers a built lazy plugin, it will be started by the first retrieve or dependant start.
+     *
+     * @param info the lazy plugin
+     * @param timeout the start timeout of the plugin, or null if it doesn't have one
+     */
+    void lazy(@NotNull PluginInfo info, @Nullable Duration timeout) {
+        lazy.put(info.getReference(), new LazyPlugin(timeout));
+    }
+
+    /**
+     * Starts the plugin if it's a lazy plugin that wasn't started yet, starting its lazy dependencies first.
+     * If another thread is already starting it, waits until the start finishes.
+     * <p>
+     * If the lazy plugin failed to start (or didn't start in time), the failure is kept and every later
+     * start of it fails again, the plugin is never silently handed out without running.
+     *
+     * @param info the plugin
+     * @throws PluginInitializeException if the lazy plugin (or a lazy dependency) cannot be started
+     */
+    void start(@NotNull PluginInfo info) throws PluginInitializeException {
+        @Nullable LazyPlugin plugin = lazy.get(info.getReference());
+        if (plugin == null) return;
+
+        synchronized (plugin) {
+            if (plugin.failure != null) {
+                throw new PluginInitializeException(info.getReference(), "the lazy plugin failed to start", plugin.failure);
+            } else if (plugin.starting || !lazy.containsKey(info.getReference())) {
+                // Already started by another thread, or it's being started by this thread
+                return;
+            }
+
+            plugin.starting = true;
+
+            try {
+                for (@NotNull PluginInfo dependency : info.getDependencies()) {
+                    start(dependency);
+                }
+
+                if (plugin.timeout != null) {
+                    start(info, plugin.timeout);
+                } else {
+                    info.start();
+                }
+
+                lazy.remove(info.getReference());
+            } catch (@NotNull PluginInitializeException e) {
+                plugin.failure = e;
+                throw e;
+            } catch (@NotNull Throwable throwable) {
+                plugin.failure = new PluginInitializeException(info.getReference(), "cannot initialize lazy plugin correctly", throwable);
+                throw plugin.failure;
+            } finally {
+                plugin.starting = false;
+            }
+        }
+    }
+
+    /**
+     * Starts the lazy plugin at its own thread, waiting at most the start timeout for it (see {@link Watchdog}).
+     */
+    private static void start(@NotNull PluginInfo info, @NotNull Duration timeout) throws Throwable {
+        @NotNull AtomicReference<Thread> thread = new AtomicReference<>();
+        @NotNull CompletableFuture<Void> future = new CompletableFuture<>();
+
+        VirtualThreads.getExecutor().execute(() -> {
+            thread.set(Thread.currentThread());
+
+            try {
+                info.start();
+                future.complete(null);
+            } catch (@NotNull Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        });
+
+        try {
+            future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (@NotNull ExecutionException e) {
+            throw e.getCause();
+        } catch (@NotNull TimeoutException e) {
+            Watchdog.expire(info, "start", timeout, thread.get());
+            throw new PluginInitializeException(info.getReference(), "the lazy plugin didn't start in " + timeout.toMillis() + "ms");
+        } catch (@NotNull InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PluginInitializeException(info.getReference(), "interrupted while waiting the lazy plugin to start", e);
+        }
+    }
+
+    private void touch(@NotNull PluginInfo info) {
+        if (building.get() || !lazy.containsKey(info.getReference())) {
+            return;
+        }
 
-        for (@NotNull PluginInfo info : plugins) {
-            info.close();
+        try {
+            start(info);
+        } catch (@NotNull PluginInitializeException e) {
+            throw new IllegalStateException("cannot start lazy plugin '" + info + "'", e);
         }
     }
 
@@ -246,19 +537,40 @@ final class PluginFactoryImpl implements PluginFactory {
         return new PluginFinderImpl(this);
     }
 
+    @Override
+    public void invalidateScanCache() {
+        session.invalidate();
+    }
+
     // Iterator and stream
 
     @Override
     public @NotNull Iterator<PluginInfo> iterator() {
-        return plugins.values().iterator();
+        return getPlugins().iterator();
     }
     @Override
     public @NotNull Stream<PluginInfo> stream() {
-        return plugins.values().stream();
+        return getPlugins().stream();
     }
 
     // Classes
 
+    /**
+     * The start lock of a lazy plugin.
+     */
+    private static final class LazyPlugin {
+
+        private final @Nullable Duration timeout;
+
+        private boolean starting = false;
+        private @Nullable PluginInitializeException failure;
+
+        private LazyPlugin(@Nullable Duration timeout) {
+            this.timeout = timeout;
+        }
+
+    }
+
     private final class AutoRegisterPluginCategory extends AbstractPluginCategory {
 
         // Object
@@ -287,7 +599,7 @@ final class PluginFactoryImpl implements PluginFactory {
             }
 
             @NotNull PluginCategory category = (PluginCategory) instance;
-            categories.put(category.getName().toLowerCase(), category);
+            setCategory(category);
         }
         @Override
         public void close(@NotNull PluginInfo info) throws PluginInterruptException {
@@ -300,6 +612,7 @@ final class PluginFactoryImpl implements PluginFactory {
 
             category.getPlugins().clear();
             categories.remove(category.getName().toLowerCase());
+            categoriesVersion.incrementAndGet();
         }
 
         // Classes
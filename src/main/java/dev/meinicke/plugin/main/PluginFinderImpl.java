@@ -6,15 +6,20 @@ import dev.meinicke.plugin.annotation.*;
 import dev.meinicke.plugin.category.PluginCategory;
 import dev.meinicke.plugin.exception.PluginInitializeException;
 import dev.meinicke.plugin.factory.PluginFinder;
-import dev.meinicke.plugin.initializer.ConstructorPluginInitializer;
+import dev.meinicke.plugin.factory.PluginFinder.JarReader;
+import dev.meinicke.plugin.factory.PluginLoading;
 import dev.meinicke.plugin.initializer.PluginInitializer;
 import dev.meinicke.plugin.metadata.Metadata;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.lang.module.ModuleReference;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.Executor;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -32,6 +37,8 @@ final class PluginFinderImpl implements PluginFinder {
     private final @NotNull Set<Class<?>> dependencies = new HashSet<>();
 
     private final @NotNull Map<String, Boolean> packages = new HashMap<>();
+    private final @NotNull Set<ModuleLayer> layers = new LinkedHashSet<>();
+    private final @NotNull Set<String> modules = new HashSet<>();
     private final @NotNull Set<Class<?>> dependants = new HashSet<>();
     private final @NotNull Set<Object> instances = new HashSet<>();
     private final @NotNull Set<State> states = new HashSet<>();
@@ -41,7 +48,16 @@ final class PluginFinderImpl implements PluginFinder {
 
     private final @NotNull Metadata metadata = new Metadata();
 
-    private volatile boolean shutdownHook = true;
+    private volatile boolean shutdownHook = false;
+    private volatile @Nullable Path cacheDirectory;
+    private volatile boolean indexEnabled = false;
+    private volatile boolean scanCacheEnabled = false;
+    private volatile int scanParallelism = 1;
+    private volatile boolean systemModules = false;
+    private volatile @NotNull JarReader jarReader = JarReader.ZIP_FILE;
+    private volatile @Nullable Executor executor;
+    private volatile @Nullable Duration startTimeout;
+    private volatile @Nullable Duration closeTimeout;
 
     public PluginFinderImpl(@NotNull PluginFactoryImpl factory) {
         this.factory = factory;
@@ -78,10 +94,65 @@ final class PluginFinderImpl implements PluginFinder {
         return packages;
     }
 
+    public @NotNull Set<ModuleLayer> getLayers() {
+        return layers;
+    }
+    public @NotNull Set<String> getModuleNames() {
+        return modules;
+    }
+
     public boolean hasShutdownHook() {
         return shutdownHook;
     }
 
+    @Override
+    public boolean hasSystemModules() {
+        return systemModules;
+    }
+    @Override
+    public @NotNull Set<String> getModules() {
+        @NotNull Set<String> names = new LinkedHashSet<>();
+
+        for (@NotNull ModuleReference reference : Classes.getModules(this).keySet()) {
+            names.add(reference.descriptor().name());
+        }
+
+        return Collections.unmodifiableSet(names);
+    }
+
+    @Override
+    public @Nullable Path getCacheDirectory() {
+        return cacheDirectory;
+    }
+    @Override
+    public boolean isIndexEnabled() {
+        return indexEnabled;
+    }
+    @Override
+    public boolean isScanCacheEnabled() {
+        return scanCacheEnabled;
+    }
+    @Override
+    public int getScanParallelism() {
+        return scanParallelism;
+    }
+    @Override
+    public @NotNull JarReader getJarReader() {
+        return jarReader;
+    }
+    @Override
+    public @Nullable Executor getExecutor() {
+        return executor;
+    }
+    @Override
+    public @Nullable Duration getStartTimeout() {
+        return startTimeout;
+    }
+    @Override
+    public @Nullable Duration getCloseTimeout() {
+        return closeTimeout;
+    }
+
     // Class Loaders
 
     @Override
@@ -170,6 +241,34 @@ final class PluginFinderImpl implements PluginFinder {
         return this;
     }
 
+    // Module layers
+
+    @Override
+    public @NotNull PluginFinder layers(@NotNull ModuleLayer @NotNull ... layers) {
+        this.layers.clear();
+        this.layers.addAll(Arrays.asList(layers));
+
+        return this;
+    }
+    @Override
+    public @NotNull PluginFinder addLayer(@NotNull ModuleLayer layer) {
+        layers.add(layer);
+        return this;
+    }
+
+    @Override
+    public @NotNull PluginFinder modules(@NotNull String @NotNull ... modules) {
+        this.modules.clear();
+        this.modules.addAll(Arrays.asList(modules));
+
+        return this;
+    }
+    @Override
+    public @NotNull PluginFinder addModule(@NotNull String module) {
+        modules.add(module);
+        return this;
+    }
+
     // Initializers
 
     @Override
@@ -462,6 +561,67 @@ final class PluginFinderImpl implements PluginFinder {
         this.shutdownHook = shutdownHook;
         return this;
     }
+    @Override
+    public @NotNull PluginFinder setCacheDirectory(@Nullable Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+        return this;
+    }
+    @Override
+    public @NotNull PluginFinder setIndexEnabled(boolean indexEnabled) {
+        this.indexEnabled = indexEnabled;
+        return this;
+    }
+    @Override
+    public @NotNull PluginFinder setScanCacheEnabled(boolean scanCacheEnabled) {
+        this.scanCacheEnabled = scanCacheEnabled;
+        return this;
+    }
+    @Override
+    public @NotNull PluginFinder setSystemModules(boolean systemModules) {
+        this.systemModules = systemModules;
+        return this;
+    }
+    @Override
+    public @NotNull PluginFinder setScanParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("the scan parallelism must be at least one: " + parallelism);
+        }
+
+        this.scanParallelism = parallelism;
+        return this;
+    }
+    @Override
+    public @NotNull PluginFinder setJarReader(@NotNull JarReader reader) {
+        this.jarReader = reader;
+        return this;
+    }
+    @Override
+    public @NotNull PluginFinder setExecutor(@Nullable Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+    @Override
+    public @NotNull PluginFinder useVirtualThreads() {
+        return setExecutor(VirtualThreads.getExecutor());
+    }
+    @Override
+    public @NotNull PluginFinder setStartTimeout(@Nullable Duration timeout) {
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw new IllegalArgumentException("the start timeout must be positive: " + timeout);
+        }
+
+        this.startTimeout = timeout;
+        return this;
+    }
+    @Override
+    public @NotNull PluginFinder setCloseTimeout(@Nullable Duration timeout) {
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw new IllegalArgumentException("the close timeout must be positive: " + timeout);
+        }
+
+        this.closeTimeout = timeout;
+        return this;
+    }
 
     // Query
 
@@ -494,21 +654,23 @@ final class PluginFinderImpl implements PluginFinder {
     }
     @Override
     public boolean matches(@NotNull Class<?> reference) {
-        if (!reference.isAnnotationPresent(Plugin.class)) {
+        @NotNull PluginDescriptor descriptor = PluginDescriptor.of(reference);
+
+        if (!descriptor.isPlugin()) {
             return false;
         }
 
         @NotNull ClassLoader classLoader = reference.getClassLoader();
-        @NotNull Set<String> categories = Arrays.stream(reference.getAnnotationsByType(Category.class)).map(Category::value).map(String::toLowerCase).collect(Collectors.toSet());
+        @NotNull List<String> categories = descriptor.getCategories();
         @NotNull String packge = reference.getPackage().getName();
-        @NotNull Class<? extends PluginInitializer> initializer = reference.isAnnotationPresent(Initializer.class) ? reference.getAnnotation(Initializer.class).type() : ConstructorPluginInitializer.class;
-        @NotNull String name = reference.getAnnotation(Plugin.class).name();
-        @NotNull String description = reference.getAnnotation(Plugin.class).description();
-        @NotNull Set<Class<?>> dependencies = Arrays.stream(reference.getAnnotationsByType(Dependency.class)).map(Dependency::type).collect(Collectors.toSet());
+        @NotNull Class<? extends PluginInitializer> initializer = descriptor.getInitializer();
+        @NotNull String name = descriptor.getName() != null ? descriptor.getName() : "";
+        @NotNull String description = descriptor.getDescription() != null ? descriptor.getDescription() : "";
+        @NotNull Set<Class<?>> dependencies = descriptor.getDependencies();
 
         if (!classLoaders.isEmpty() && classLoaders.contains(classLoader)) {
             return false;
-        } else if (!this.categories.isEmpty() && this.categories.stream().map(String::toLowerCase).collect(Collectors.toSet()).containsAll(categories)) {
+        } else if (!checkCategories(categories)) {
             return false;
         } else if (!checkPackageWithin(packge)) {
             return false;
@@ -524,7 +686,7 @@ final class PluginFinderImpl implements PluginFinder {
 
         // Check metadata
         for (@NotNull Entry<String, Class<?>> entry : metadataTypes.entrySet()) {
-            @Nullable RequireMetadata annotation = Arrays.stream(reference.getAnnotationsByType(RequireMetadata.class)).filter(a -> a.key().equalsIgnoreCase(entry.getKey())).findFirst().orElse(null);
+            @Nullable RequireMetadata annotation = descriptor.getRequiredMetadata(entry.getKey());
 
             if (annotation == null) {
                 return false;
@@ -535,7 +697,7 @@ final class PluginFinderImpl implements PluginFinder {
 
         // Check attribute
         for (@NotNull Entry<String, Object> entry : attributes.entrySet()) {
-            @Nullable Attribute annotation = Arrays.stream(reference.getAnnotationsByType(Attribute.class)).filter(a -> a.key().equalsIgnoreCase(entry.getKey())).findFirst().orElse(null);
+            @Nullable Attribute annotation = descriptor.getAttribute(entry.getKey());
 
             if (annotation == null) {
                 return false;
@@ -549,17 +711,17 @@ final class PluginFinderImpl implements PluginFinder {
     @Override
     public @NotNull PluginInfo @NotNull [] plugins() {
         // Variables
-        @NotNull Set<PluginInfo> plugins = new HashSet<>();
+        @NotNull List<PluginInfo> plugins = new ArrayList<>();
 
-        // Detect plugins
-        for (@NotNull PluginInfo plugin : getFactory()) {
+        // Detect plugins, the factory order already has the dependencies first
+        for (@NotNull PluginInfo plugin : getFactory().getOrder()) {
             if (matches(plugin)) {
                 plugins.add(plugin);
             }
         }
 
         // Finish
-        return PluginLoader.organizePlugins(plugins).toArray(new PluginInfo[0]);
+        return plugins.toArray(new PluginInfo[0]);
     }
 
     @Override
@@ -576,11 +738,52 @@ final class PluginFinderImpl implements PluginFinder {
 
         return loader.getPlugins().toArray(new PluginInfo[0]);
     }
+    @Override
+    public @NotNull PluginLoading loadAsync(@NotNull Predicate<Class<?>> predicate) {
+        // The caller must be retrieved before leaving this thread
+        @NotNull Class<?> caller = PluginLoader.getCallerClass();
+        @NotNull PluginLoadingImpl loading = new PluginLoadingImpl();
+
+        VirtualThreads.getExecutor().execute(() -> {
+            try {
+                @NotNull PluginLoader loader = new PluginLoader(this, predicate, caller, loading);
+                loader.load();
+
+                loading.complete(loader.getPlugins().toArray(new PluginInfo[0]));
+            } catch (@NotNull Throwable throwable) {
+                loading.fail(throwable);
+            }
+        });
+
+        return loading;
+    }
 
     // Utilities
 
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     public boolean checkPackageWithin(@NotNull String reference) {
+        return checkPackageWithin(packages, reference);
+    }
+
+    /**
+     * The category filter shared by the class and bytecode matches: the plugin is filtered out when all of its
+     * categories are between the finder's categories.
+     *
+     * @param categories the category names of the plugin
+     * @return true if the categories pass the filter
+     */
+    @SuppressWarnings("BooleanMethodIsAlwaysInverted")
+    boolean checkCategories(@NotNull Collection<String> categories) {
+        if (this.categories.isEmpty()) {
+            return true;
+        }
+
+        @NotNull Set<String> filter = this.categories.stream().map(String::toLowerCase).collect(Collectors.toSet());
+        return !filter.containsAll(categories.stream().map(String::toLowerCase).collect(Collectors.toSet()));
+    }
+
+    @SuppressWarnings("BooleanMethodIsAlwaysInverted")
+    static boolean checkPackageWithin(@NotNull Map<String, Boolean> packages, @NotNull String reference) {
         if (packages.isEmpty()) {
             return true;
         }
@@ -605,4 +808,33 @@ final class PluginFinderImpl implements PluginFinder {
         return any;
     }
 
+    /**
+     * Checks if the package or any of its sub-packages can be accepted by the packages filter,
+     * used to skip whole directories while scanning.
+     *
+     * @param packages the packages filter
+     * @param reference the package name, empty for the root package
+     * @return true if any class of the package tree can be accepted by the filter
+     */
+    static boolean checkPackageTree(@NotNull Map<String, Boolean> packages, @NotNull String reference) {
+        if (packages.isEmpty() || reference.isEmpty()) {
+            return true;
+        }
+
+        for (@NotNull Entry<String, Boolean> entry : packages.entrySet()) {
+            // Variables
+            @NotNull String required = entry.getKey();
+            boolean recursive = entry.getValue();
+
+            // The required package is inside this tree, or this tree is inside a recursive required package
+            if (required.startsWith(reference + ".") || required.equals(reference)) {
+                return true;
+            } else if (recursive && reference.startsWith(required)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
 }
@@ -0,0 +1,170 @@
+package dev.meinicke.plugin.main;
+
+import dev.meinicke.plugin.initializer.ConstructorPluginInitializer;
+import dev.meinicke.plugin.processor.PluginIndexProcessor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reader of the compile-time plugins index generated by the {@link PluginIndexProcessor}.
+ */
+final class PluginIndex {
+
+    // Static initializers
+
+    /**
+     * Reads all the plugin classes of a plugins index resource.
+     *
+     * @param url the index resource url
+     * @return the plugin classes declared at the index
+     * @throws IOException if an I/O error occurs while reading the index
+     */
+    public static @NotNull List<ClassData> read(@NotNull URL url) throws IOException {
+        @NotNull List<ClassData> plugins = new ArrayList<>();
+
+        try (@NotNull BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+            @Nullable Entry entry = null;
+            @Nullable String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                } else if (!line.startsWith("\t")) {
+                    if (entry != null) plugins.add(entry.toClassData());
+                    entry = new Entry(line);
+
+                    continue;
+                } else if (entry == null) {
+                    throw new IOException("invalid plugins index '" + url + "', property without class: " + line);
+                }
+
+                // Property
+                int separator = line.indexOf('=');
+                if (separator < 0) {
+                    throw new IOException("invalid plugins index '" + url + "' property: " + line);
+                }
+
+                @NotNull String key = line.substring(1, separator);
+                @NotNull String value = line.substring(separator + 1);
+
+                switch (key) {
+                    case "name":
+                        entry.name = unescape(value);
+                        break;
+                    case "description":
+                        entry.description = unescape(value);
+                        break;
+                    case "initializer":
+                        entry.initializer = unescape(value);
+                        break;
+                    case "category":
+                        entry.categories.add(unescape(value));
+                        break;
+                    case "dependency":
+                        entry.dependencies.add(unescape(value));
+                        break;
+                    default:
+                        // Properties not used to discover the plugin (priority, attributes, metadata...)
+                        break;
+                }
+            }
+
+            if (entry != null) plugins.add(entry.toClassData());
+        }
+
+        return plugins;
+    }
+
+    /**
+     * Retrieves the classpath entry (jar or directory) that contains the plugins index resource.
+     *
+     * @param url the index resource url
+     * @return the classpath entry path, or null if the url isn't from a local jar or directory
+     */
+    public static @Nullable Path getEntry(@NotNull URL url) {
+        try {
+            if (url.getProtocol().equals("jar")) {
+                @NotNull URL jar = ((JarURLConnection) url.openConnection()).getJarFileURL();
+                return jar.getProtocol().equals("file") ? Paths.get(jar.toURI()).toAbsolutePath().normalize() : null;
+            } else if (url.getProtocol().equals("file")) {
+                @NotNull Path path = Paths.get(url.toURI());
+
+                for (int index = 0; index < PluginIndexProcessor.RESOURCE.split("/").length; index++) {
+                    path = path.getParent();
+                }
+
+                return path.toAbsolutePath().normalize();
+            }
+        } catch (@NotNull IOException | @NotNull URISyntaxException | @NotNull RuntimeException ignore) {
+        }
+
+        return null;
+    }
+
+    private static @NotNull String unescape(@NotNull String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+
+        @NotNull StringBuilder builder = new StringBuilder(value.length());
+
+        for (int index = 0; index < value.length(); index++) {
+            char c = value.charAt(index);
+
+            if (c == '\\' && index + 1 < value.length()) {
+                char next = value.charAt(++index);
+
+                if (next == 't') builder.append('\t');
+                else if (next == 'n') builder.append('\n');
+                else if (next == 'r') builder.append('\r');
+                else builder.append(next);
+            } else {
+                builder.append(c);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    // Object
+
+    private PluginIndex() {
+        throw new UnsupportedOperationException("this class cannot be instantiated");
+    }
+
+    // Classes
+
+    private static final class Entry {
+
+        private final @NotNull String reference;
+
+        private @NotNull String name = "";
+        private @NotNull String description = "";
+        private @NotNull String initializer = ConstructorPluginInitializer.class.getName();
+
+        private final @NotNull List<String> categories = new ArrayList<>();
+        private final @NotNull List<String> dependencies = new ArrayList<>();
+
+        private Entry(@NotNull String reference) {
+            this.reference = reference;
+        }
+
+        private @NotNull ClassData toClassData() {
+            return new ClassData(reference, name, description, initializer, categories, dependencies);
+        }
+
+    }
+
+}
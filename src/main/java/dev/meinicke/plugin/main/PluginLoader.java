@@ -2,9 +2,6 @@ package dev.meinicke.plugin.main;
 
 import dev.meinicke.plugin.Builder;
 import dev.meinicke.plugin.PluginInfo;
-import dev.meinicke.plugin.annotation.Category;
-import dev.meinicke.plugin.annotation.Dependency;
-import dev.meinicke.plugin.annotation.Plugin;
 import dev.meinicke.plugin.annotation.RequireMetadata;
 import dev.meinicke.plugin.category.PluginCategory;
 import dev.meinicke.plugin.context.PluginContext;
@@ -19,9 +16,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.lang.reflect.Modifier;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -34,10 +39,14 @@ final class PluginLoader {
     // Static initializers
 
     private static final @NotNull Logger log = LoggerFactory.getLogger(PluginLoader.class);
+    private static final @NotNull StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
 
     // Object
 
     private final @NotNull PluginFinderImpl finder;
+    private final @NotNull Class<?> caller;
+
+    private final @Nullable PluginLoadingImpl loading;
 
     private @Nullable ShutdownHookThread thread;
 
@@ -48,14 +57,27 @@ final class PluginLoader {
     private final @NotNull Map<Class<?>, Set<PluginHandler>> builderHandlers = new HashMap<>();
     private final @NotNull Map<Class<?>, Set<PluginHandler>> pluginHandlers = new HashMap<>();
 
+    /**
+     * The builders by their category names (lower case) and the categories they were last accepted with,
+     * used to call the accept handlers again only for the builders whose categories changed.
+     */
+    private final @NotNull Map<String, Set<Builder>> categoryBuilders = new HashMap<>();
+    private final @NotNull Map<String, PluginCategory> acceptedCategories = new HashMap<>();
+    private int categoriesVersion;
+    private int handlersVersion;
+
     private final @NotNull Set<Builder> builders;
     private final @NotNull Set<PluginInfo> plugins = new LinkedHashSet<>();
 
     public PluginLoader(@NotNull PluginFinderImpl finder, @NotNull Predicate<Class<?>> predicate) throws IOException {
+        this(finder, predicate, getCallerClass(), null);
+    }
+    public PluginLoader(@NotNull PluginFinderImpl finder, @NotNull Predicate<Class<?>> predicate, @NotNull Class<?> caller, @Nullable PluginLoadingImpl loading) throws IOException {
         this.finder = finder;
+        this.caller = caller;
+        this.loading = loading;
 
         // Variables
-        @NotNull Class<?> caller = getCallerClass();
         @NotNull PluginFactory factory = Plugins.getPluginFactory();
 
         @NotNull Set<Builder> builders = new LinkedHashSet<>();
@@ -73,11 +95,9 @@ final class PluginLoader {
             }
 
             // Builder secondary variables
-            @Nullable String name = reference.getAnnotation(Plugin.class).name();
-            if (name.isEmpty()) name = null;
-
-            @Nullable String description = reference.getAnnotation(Plugin.class).description();
-            if (description.isEmpty()) description = null;
+            @NotNull PluginDescriptor descriptor = PluginDescriptor.of(reference);
+            @Nullable String name = descriptor.getName();
+            @Nullable String description = descriptor.getDescription();
 
             // Create plugin context
             @NotNull PluginContext context = new PluginContextImpl(reference, caller, getFinder());
@@ -89,22 +109,41 @@ final class PluginLoader {
         }
 
         // Finish
-        this.builders = organizeBuilders(builders);
+        this.builders = BuilderScheduler.organize(builders);
 
         // Verify dependencies
+        @NotNull Set<Class<?>> references = new HashSet<>();
+        @NotNull List<InvalidPluginException> failures = new ArrayList<>();
+
+        for (@NotNull Builder builder : getBuilders()) {
+            references.add(builder.getReference());
+        }
+
         for (@NotNull Builder builder : getBuilders()) {
             @NotNull Class<?> reference = builder.getReference();
 
             for (@NotNull Class<?> dependency : builder.getDependencies()) {
-                if (getBuilders().stream().noneMatch(b -> b.getReference().equals(dependency)) && getFactory().stream().noneMatch(b -> b.getReference().equals(dependency))) {
-                    if (dependency.isAnnotationPresent(Plugin.class)) {
-                        throw new InvalidPluginException(reference, "the plugin '" + reference.getName() + "' depends on '" + dependency.getName() + "' that isn't loaded.");
-                    } else {
-                        throw new InvalidPluginException(reference, "the plugin '" + reference.getName() + "' cannot have a dependency on '" + dependency.getName() + "' because it's not a plugin");
-                    }
+                if (references.contains(dependency) || getFactory().isRegistered(dependency)) {
+                    continue;
+                }
+
+                if (PluginDescriptor.of(dependency).isPlugin()) {
+                    failures.add(new InvalidPluginException(reference, "the plugin '" + reference.getName() + "' depends on '" + dependency.getName() + "' that isn't loaded."));
+                } else {
+                    failures.add(new InvalidPluginException(reference, "the plugin '" + reference.getName() + "' cannot have a dependency on '" + dependency.getName() + "' because it's not a plugin"));
                 }
             }
         }
+
+        // Report all the unresolved dependencies at once
+        if (failures.size() == 1) {
+            throw failures.get(0);
+        } else if (!failures.isEmpty()) {
+            @NotNull InvalidPluginException exception = new InvalidPluginException(failures.get(0).getPlugin(), failures.size() + " unresolved plugin dependencies: " + failures.stream().map(Throwable::getMessage).collect(Collectors.joining("; ")));
+            failures.forEach(exception::addSuppressed);
+
+            throw exception;
+        }
     }
 
     // Getters
@@ -116,6 +155,13 @@ final class PluginLoader {
         return getFinder().getFactory();
     }
 
+    /**
+     * @return the first class outside the JPlugin framework at the stack that created this loader
+     */
+    public @NotNull Class<?> getCaller() {
+        return caller;
+    }
+
     public @Nullable ShutdownHookThread getThread() {
         return thread;
     }
@@ -152,53 +198,142 @@ final class PluginLoader {
 
     // Modules
 
-    private void callEveryoneAgain(@NotNull Set<Builder> builders) {
-        builders.removeIf(builder -> callAcceptHandlers(builder) == SUPPRESSED);
+    private void callEveryone(@NotNull BuilderScheduler scheduler) {
+        // Take the versions first, the changes made by the handlers themselves are seen by the next call
+        categoriesVersion = getFactory().getCategoriesVersion();
+        handlersVersion = Plugins.getPluginFactory().getGlobalHandlers().getVersion();
+
+        // Index the builders by category
+        for (@NotNull Builder builder : scheduler.getPending()) {
+            for (@NotNull String name : PluginDescriptor.of(builder.getReference()).getCategories()) {
+                categoryBuilders.computeIfAbsent(name.toLowerCase(), k -> new LinkedHashSet<>()).add(builder);
+            }
+        }
+        for (@NotNull String name : categoryBuilders.keySet()) {
+            acceptedCategories.put(name, getFactory().getCategory(name, false).orElse(null));
+        }
+
+        callAcceptHandlers(scheduler, scheduler.getPending());
+    }
+
+    /**
+     * Calls the accept handlers again only for the pending builders whose handlers changed since the last call:
+     * every builder if the global handlers changed, or the builders of the categories that were registered or
+     * replaced. The builders that didn't change would skip all their handlers anyway, since each handler accepts
+     * a builder only once.
+     */
+    private void callChanged(@NotNull BuilderScheduler scheduler) {
+        int categoriesVersion = getFactory().getCategoriesVersion();
+        int handlersVersion = Plugins.getPluginFactory().getGlobalHandlers().getVersion();
+
+        boolean handlersChanged = handlersVersion != this.handlersVersion || handlersVersion == -1;
+
+        if (!handlersChanged && categoriesVersion == this.categoriesVersion) {
+            return;
+        }
+
+        this.categoriesVersion = categoriesVersion;
+        this.handlersVersion = handlersVersion;
+
+        // Collect the builders of the changed categories
+        @NotNull Set<Builder> changed = new LinkedHashSet<>();
+
+        for (@NotNull Map.Entry<String, Set<Builder>> entry : categoryBuilders.entrySet()) {
+            @Nullable PluginCategory category = getFactory().getCategory(entry.getKey(), false).orElse(null);
+
+            if (category != acceptedCategories.get(entry.getKey())) {
+                acceptedCategories.put(entry.getKey(), category);
+                if (category != null) changed.addAll(entry.getValue());
+            }
+        }
+
+        if (handlersChanged) {
+            callAcceptHandlers(scheduler, scheduler.getPending());
+        } else {
+            callAcceptHandlers(scheduler, changed);
+        }
+    }
+    private void callAcceptHandlers(@NotNull BuilderScheduler scheduler, @NotNull Collection<Builder> builders) {
+        for (@NotNull Builder builder : builders) {
+            if (!scheduler.isPending(builder)) {
+                continue;
+            }
+
+            @Nullable HandlerState state = callAcceptHandlers(builder);
+
+            if (state == SUPPRESSED) {
+                suppress(scheduler, builder);
+            } else if (state == HandlerState.ACCEPTED) {
+                // The handlers could have changed the priority or dependencies
+                scheduler.update(builder);
+            }
+        }
     }
 
     public synchronized void load() throws PluginInitializeException {
         // Variables
-        @NotNull Set<Builder> builders = new LinkedHashSet<>(getBuilders());
-        @NotNull Set<PluginInfo> plugins = new LinkedHashSet<>();
+        @NotNull BuilderScheduler scheduler = new BuilderScheduler(getBuilders());
+        @NotNull Map<Class<?>, PluginInfo> plugins = new LinkedHashMap<>();
+
+        // Parallel start, only the plugin's start runs at the executor
+        @Nullable Executor executor = getFinder().getExecutor();
+        @NotNull BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+        int starting = 0;
 
         // The first handlers call is necessary to apply the default categories and handlers (Like "Category Reference")
-        callEveryoneAgain(builders);
+        callEveryone(scheduler);
 
         // Start building plugins
-        @NotNull Iterator<Builder> iterator = organizeBuilders(builders).iterator();
+        while (!scheduler.isEmpty()) {
+            @Nullable Builder builder = scheduler.poll();
 
-        while (iterator.hasNext()) {
-            @NotNull Builder builder = iterator.next();
-            @NotNull Class<?> reference = builder.getReference();
+            if (builder == null) {
+                if (starting == 0) {
+                    throw new IllegalStateException("cyclic or unresolved dependencies detected: " + scheduler.getPending());
+                }
+
+                // Wait until a plugin finishes starting to release its dependants
+                await(scheduler, completions);
+                starting--;
+
+                callChanged(scheduler);
+                continue;
+            }
 
+            @NotNull Class<?> reference = builder.getReference();
             @Nullable HandlerState state = callAcceptHandlers(builder);
 
             if (state == SUPPRESSED) {
-                builders.remove(builder);
-            } else if (state == null) {
+                suppress(scheduler, builder);
+            } else if (state == HandlerState.ACCEPTED) {
+                scheduler.reschedule(builder);
+            } else {
                 // Build plugin
-                @Nullable PluginInfo plugin = plugins.stream().filter(p -> p.getReference().equals(reference)).findFirst().orElse(null);
+                @Nullable PluginInfo plugin = plugins.get(reference);
 
                 if (plugin == null) {
                     try {
+                        getFactory().building.set(true);
                         plugin = builder.build();
                     } catch (@NotNull Throwable e) {
                         throw new PluginInitializeException(reference, "cannot build plugin info of class: " + reference.getName(), e);
+                    } finally {
+                        getFactory().building.remove();
                     }
 
                     // Register it
-                    getFactory().plugins.put(reference, plugin);
+                    getFactory().register(plugin);
 
                     // Add it to the list
-                    plugins.add(plugin);
+                    plugins.put(reference, plugin);
 
                     // Change context variables
                     @NotNull PluginContextImpl context = (PluginContextImpl) builder.getContext();
                     context.plugin = plugin;
-                    context.plugins.addAll(plugins);
+                    context.plugins.addAll(plugins.values());
 
                     // Check metadata
-                    for (@NotNull RequireMetadata annotation : plugin.getReference().getAnnotationsByType(RequireMetadata.class)) {
+                    for (@NotNull RequireMetadata annotation : PluginDescriptor.of(plugin.getReference()).getRequiredMetadata()) {
                         @NotNull String key = annotation.key();
                         @Nullable Object value = getFinder().getMetadata().getOrDefault(key, null);
 
@@ -213,52 +348,172 @@ final class PluginLoader {
                 }
 
                 // Start loading plugin
-                state = callAcceptHandlers(plugin);
+                try {
+                    getFactory().building.set(true);
+                    state = callAcceptHandlers(plugin);
+                } finally {
+                    getFactory().building.remove();
+                }
 
                 if (state == SUPPRESSED) {
-                    builders.remove(builder);
-                } else if (state == null) {
-                    // Start plugin
-                    try {
-                        plugin.start();
-                        builders.remove(builder);
-                    } catch (@NotNull PluginInitializeException e) {
-                        throw e;
-                    } catch (@NotNull Throwable throwable) {
-                        throw new PluginInitializeException(plugin.getReference(), "cannot initialize plugin correctly", throwable);
+                    suppress(scheduler, builder);
+                } else if (state == HandlerState.ACCEPTED) {
+                    scheduler.reschedule(builder);
+                } else if (builder.isLazy()) {
+                    // Lazy plugin, it's started by the first retrieve or dependant start
+                    getFactory().lazy(plugin, Watchdog.getStartTimeout(plugin, getFinder().getStartTimeout()));
+                    scheduler.remove(builder);
+                } else {
+                    @Nullable Duration timeout = Watchdog.getStartTimeout(plugin, getFinder().getStartTimeout());
+
+                    if (executor == null && timeout == null) {
+                        // Start plugin
+                        start(plugin);
+                        scheduler.remove(builder);
+
+                        if (loading != null) loading.start(plugin);
+                    } else if (executor == null) {
+                        // Start plugin at its own thread to enforce the timeout, waiting it to keep starting one by one
+                        submit(VirtualThreads.getExecutor(), builder, plugin, timeout, completions);
+                        await(scheduler, completions);
+                    } else {
+                        // Start plugin in parallel, the dependants are released when it finishes
+                        submit(executor, builder, plugin, timeout, completions);
+                        starting++;
                     }
                 }
             }
 
-            callEveryoneAgain(builders);
+            // Release the dependants of the plugins that already finished starting
+            for (@Nullable Completion completion = completions.poll(); completion != null; completion = completions.poll()) {
+                complete(scheduler, completion);
+                starting--;
+            }
 
-            iterator = organizeBuilders(builders).iterator();
+            callChanged(scheduler);
         }
 
         // Finish
-        this.plugins.addAll(organizePlugins(plugins));
+        this.plugins.addAll(organizePlugins(new LinkedHashSet<>(plugins.values())));
+
+        // Shutdown hook, closes the plugins at the same executor they were started
+        if (getFinder().hasShutdownHook() && !this.plugins.isEmpty()) {
+            thread = getFactory().hook(getPlugins(), executor, getFinder().getCloseTimeout());
+        }
+    }
+
+    private void start(@NotNull PluginInfo plugin) throws PluginInitializeException {
+        // Start the lazy dependencies first
+        for (@NotNull PluginInfo dependency : plugin.getDependencies()) {
+            getFactory().start(dependency);
+        }
+
+        try {
+            plugin.start();
+        } catch (@NotNull PluginInitializeException e) {
+            throw e;
+        } catch (@NotNull Throwable throwable) {
+            throw new PluginInitializeException(plugin.getReference(), "cannot initialize plugin correctly", throwable);
+        }
+    }
+    private void submit(@NotNull Executor executor, @NotNull Builder builder, @NotNull PluginInfo plugin, @Nullable Duration timeout, @NotNull BlockingQueue<Completion> completions) throws PluginInitializeException {
+        // Only the first of the start and the watchdog completes the plugin
+        @NotNull AtomicBoolean done = new AtomicBoolean(false);
+        @NotNull AtomicReference<Thread> thread = new AtomicReference<>();
+
+        @Nullable ScheduledFuture<?> deadline = timeout == null ? null : Watchdog.schedule(timeout, () -> {
+            if (done.compareAndSet(false, true)) {
+                Watchdog.expire(plugin, "start", timeout, thread.get());
+                completions.add(new Completion(builder, null, true));
+            }
+        });
+
+        try {
+            executor.execute(() -> {
+                thread.set(Thread.currentThread());
+                @Nullable PluginInitializeException failure = null;
+
+                try {
+                    start(plugin);
+                } catch (@NotNull PluginInitializeException e) {
+                    failure = e;
+                }
+
+                if (done.compareAndSet(false, true)) {
+                    if (deadline != null) deadline.cancel(false);
+                    if (loading != null && failure == null) loading.start(plugin);
+
+                    completions.add(new Completion(builder, failure, false));
+                }
+            });
+        } catch (@NotNull RejectedExecutionException e) {
+            if (deadline != null) deadline.cancel(false);
+            throw new PluginInitializeException(plugin.getReference(), "the start executor rejected the plugin: " + plugin.getReference().getName(), e);
+        }
+    }
+    private void await(@NotNull BuilderScheduler scheduler, @NotNull BlockingQueue<Completion> completions) throws PluginInitializeException {
+        try {
+            complete(scheduler, completions.take());
+        } catch (@NotNull InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting the plugins to start", e);
+        }
+    }
+    private void complete(@NotNull BuilderScheduler scheduler, @NotNull Completion completion) throws PluginInitializeException {
+        if (completion.failure != null) {
+            // Fail fast, the plugins that still are starting will finish at the executor
+            throw completion.failure;
+        } else if (completion.expired) {
+            @NotNull Class<?> reference = completion.builder.getReference();
+            if (loading != null) loading.fail(reference, new PluginInitializeException(reference, "the plugin didn't start in time"));
+
+            // The plugin is failed, the plugins that depend on it cannot start
+            for (@NotNull Builder dependant : scheduler.discard(completion.builder)) {
+                log.error("Plugin \"{}\" skipped because its dependency \"{}\" didn't start in time", dependant, completion.builder);
+                if (loading != null) loading.fail(dependant.getReference(), new PluginInitializeException(dependant.getReference(), "the dependency '" + reference.getName() + "' didn't start in time"));
+            }
+
+            return;
+        }
+
+        scheduler.remove(completion.builder);
+    }
+    private void suppress(@NotNull BuilderScheduler scheduler, @NotNull Builder builder) {
+        scheduler.remove(builder);
+        if (loading != null) loading.fail(builder.getReference(), new PluginInitializeException(builder.getReference(), "the plugin was suppressed by a handler"));
     }
 
     // Utilities
 
     @Unmodifiable
     public @NotNull Collection<Class<?>> getClasses() throws IOException {
-        // Classes
-        @NotNull Set<Class<?>> references = new HashSet<>();
+        // Classes, the consumer can be called concurrently by the scan
+        @NotNull Set<Class<?>> references = ConcurrentHashMap.newKeySet();
+
+        @NotNull Set<ClassLoader> classLoaders = new LinkedHashSet<>(finder.getClassLoaders());
+        classLoaders.add(getCaller().getClassLoader() != null ? getCaller().getClassLoader() : Thread.currentThread().getContextClassLoader());
 
         // Consumer
         @NotNull Consumer<ClassData> consumer = data -> {
             // Variables
             @NotNull String name = data.getName();
-            @NotNull InputStream inputStream = data.getInputStream();
 
             // Verify package
             @NotNull String pkg = name.contains(".") ? name.substring(0, name.lastIndexOf('.')) : "";
             if (!getFinder().checkPackageWithin(pkg)) return;
 
-            // Load if it's a plugin
-            @NotNull Set<ClassLoader> classLoaders = new LinkedHashSet<>(finder.getClassLoaders());
-            classLoaders.add(getCallerClass().getClassLoader() != null ? getCallerClass().getClassLoader() : Thread.currentThread().getContextClassLoader());
+            // Check the bytecode before handing it to any class loader
+            if (!data.matches(finder)) return;
+
+            // Load if it's a plugin, using the module layer class loader if known
+            if (data.getClassLoader() != null) {
+                @Nullable Class<?> reference = data.loadIfPlugin(data.getClassLoader(), finder);
+
+                if (reference != null) {
+                    references.add(reference);
+                    return;
+                }
+            }
 
             for (@NotNull ClassLoader classLoader : classLoaders) {
                 @Nullable Class<?> reference = data.loadIfPlugin(classLoader, finder);
@@ -270,49 +525,23 @@ final class PluginLoader {
             }
         };
 
-        // Collect all references
-        Classes.consumeAllClasses(consumer);
+        // Collect all references, reusing the factory's scan if possible
+        if (getFinder().isScanCacheEnabled()) {
+            getFactory().getScanSession().getCandidates(getFinder(), classLoaders).forEach(consumer);
+        } else {
+            ScanSession.scan(getFinder(), new HashMap<>(getFinder().getPackages()), classLoaders, consumer);
+        }
 
         // Finish
         return references;
     }
-    private @NotNull Class<?> getCallerClass() {
-        // Retrieve caller class
-        @NotNull StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-        @Nullable Class<?> caller = null;
-
-        if (stackTrace.length > 1) {
-            int index = 0;
-            for (@NotNull StackTraceElement element : stackTrace) {
-                index++;
-                if (index == 1) continue; // Skip first
-
-                // Skip jplugin classes
-                if (element.getClassName().startsWith("dev.meinicke.plugin")) {
-                    continue;
-                }
-
-                // Select first
-                try {
-                    caller = Class.forName(element.getClassName());
-                    break;
-                } catch (ClassNotFoundException ignore1) {
-                    if (!finder.getClassLoaders().isEmpty()) {
-                        for (@NotNull ClassLoader loader : finder.getClassLoaders()) try {
-                            caller = Class.forName(element.getClassName(), false, loader);
-                            break;
-                        } catch (ClassNotFoundException ignore2) {
-                        }
-                    }
-                }
-
-                if (caller == null) {
-                    throw new RuntimeException("cannot retrieve caller class: " + element.getClassName());
-                }
-            }
-        } else {
-            throw new RuntimeException("invalid stack traces to retrieve caller class");
-        }
+    static @NotNull Class<?> getCallerClass() {
+        // Walk the stack only until the first frame outside the JPlugin classes
+        @Nullable Class<?> caller = WALKER.walk(frames -> frames
+                .map(StackWalker.StackFrame::getDeclaringClass)
+                .filter(reference -> !reference.getName().startsWith("dev.meinicke.plugin"))
+                .findFirst()
+                .orElse(null));
 
         // Finish
         if (caller == null) {
@@ -328,9 +557,8 @@ final class PluginLoader {
         @Nullable HandlerState state = null;
 
         // Call category handlers
-        for (@NotNull Category annotation : reference.getAnnotationsByType(Category.class)) {
-            @NotNull String name = annotation.value();
-            @Nullable PluginCategory category = getFactory().getCategory(annotation.value(), false).orElse(null);
+        for (@NotNull String name : PluginDescriptor.of(reference).getCategories()) {
+            @Nullable PluginCategory category = getFactory().getCategory(name, false).orElse(null);
 
             if (category != null) {
                 if (alreadyAcceptedHandler(builder, category)) {
@@ -346,7 +574,7 @@ final class PluginLoader {
                     return SUPPRESSED;
                 }
             } else {
-                builder.category(annotation.value());
+                builder.category(name);
             }
         }
 
@@ -414,9 +642,10 @@ final class PluginLoader {
 
             while (iterator.hasNext()) {
                 @NotNull Class<?> reference = iterator.next();
-                @NotNull Collection<Class<?>> dependencies = Arrays.stream(reference.getAnnotationsByType(Dependency.class)).map(Dependency::type).collect(Collectors.toList());
+                @NotNull Collection<Class<?>> dependencies = PluginDescriptor.of(reference).getDependencies();
 
-                if (dependencies.isEmpty() || sorted.containsAll(dependencies)) {
+                // The dependencies outside this load were already registered by a previous load
+                if (dependencies.stream().filter(references::contains).allMatch(sorted::contains)) {
                     sorted.add(reference);
                     iterator.remove();
                     progress = true;
@@ -430,45 +659,6 @@ final class PluginLoader {
 
         return sorted;
     }
-    private static @NotNull Set<Builder> organizeBuilders(@NotNull Set<Builder> builders) {
-        // Organize builders by order
-        @NotNull Set<Builder> sorted = new LinkedHashSet<>();
-        @NotNull List<Builder> remaining = new LinkedList<>(builders);
-        @NotNull Map<Class<?>, Builder> builderByReference = builders.stream().collect(Collectors.toMap(Builder::getReference, Function.identity()));
-
-        while (!remaining.isEmpty()) {
-            @NotNull List<Builder> eligible = new LinkedList<>();
-
-            for (@NotNull Builder builder : remaining) {
-                boolean ready = true;
-
-                for (@NotNull Class<?> dependency : builder.getDependencies()) {
-                    @NotNull Builder dependencyBuilder = builderByReference.get(dependency);
-                    if (dependencyBuilder != null && !sorted.contains(dependencyBuilder)) {
-                        ready = false;
-                        break;
-                    }
-                }
-
-                if (ready) {
-                    eligible.add(builder);
-                }
-            }
-
-            if (eligible.isEmpty()) {
-                throw new IllegalStateException("cyclic or unresolved dependencies detected: " + remaining);
-            }
-
-            eligible.sort(Comparator.comparingInt(Builder::getPriority));
-
-            @NotNull Builder chosen = eligible.get(0);
-            sorted.add(chosen);
-            remaining.remove(chosen);
-        }
-
-        // Finish
-        return sorted;
-    }
     public static @NotNull Set<PluginInfo> organizePlugins(@NotNull Set<PluginInfo> plugins) {
         @NotNull Map<Class<?>, PluginInfo> map = plugins.stream().collect(Collectors.toMap(PluginInfo::getReference, Function.identity()));
         @NotNull Set<Class<?>> sortedReferences = organizeClasses(map.keySet());
@@ -526,6 +716,20 @@ final class PluginLoader {
 
     // Classes
 
+    private static final class Completion {
+
+        private final @NotNull Builder builder;
+        private final @Nullable PluginInitializeException failure;
+        private final boolean expired;
+
+        private Completion(@NotNull Builder builder, @Nullable PluginInitializeException failure, boolean expired) {
+            this.builder = builder;
+            this.failure = failure;
+            this.expired = expired;
+        }
+
+    }
+
     public enum HandlerState {
         SUPPRESSED,
         ACCEPTED
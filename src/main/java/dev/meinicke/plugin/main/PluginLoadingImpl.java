@@ -0,0 +1,137 @@
+package dev.meinicke.plugin.main;
+
+import dev.meinicke.plugin.PluginInfo;
+import dev.meinicke.plugin.factory.PluginLoading;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The futures of an asynchronous load. The futures are always completed outside the lock, so the callbacks
+ * registered by the users can't block the loader or the other futures.
+ */
+final class PluginLoadingImpl implements PluginLoading {
+
+    // Object
+
+    private final @NotNull Map<Class<?>, CompletableFuture<PluginInfo>> futures = new HashMap<>();
+    private final @NotNull CompletableFuture<@NotNull PluginInfo @NotNull []> plugins = new CompletableFuture<>();
+
+    /**
+     * The reasons of the plugins of this load that didn't start (timeouts, failed dependencies, suppressions...).
+     */
+    private final @NotNull Map<Class<?>, Throwable> failures = new HashMap<>();
+
+    public PluginLoadingImpl() {
+    }
+
+    // Getters
+
+    @Override
+    public @NotNull CompletableFuture<PluginInfo> getPlugin(@NotNull Class<?> reference) {
+        @NotNull CompletableFuture<PluginInfo> future;
+
+        synchronized (futures) {
+            @Nullable CompletableFuture<PluginInfo> existing = futures.get(reference);
+            if (existing != null) return existing;
+
+            future = new CompletableFuture<>();
+            futures.put(reference, future);
+        }
+
+        // The load already finished without this plugin
+        if (plugins.isDone()) {
+            fail(reference, future);
+        }
+
+        return future;
+    }
+    @Override
+    public @NotNull CompletableFuture<@NotNull PluginInfo @NotNull []> getPlugins() {
+        return plugins;
+    }
+
+    // Modules
+
+    /**
+     * Called by the loader right after a plugin starts, it could be called from the start executor threads.
+     *
+     * @param plugin the started plugin
+     */
+    void start(@NotNull PluginInfo plugin) {
+        getPlugin(plugin.getReference()).complete(plugin);
+    }
+
+    /**
+     * Called by the loader when a plugin of this load will not start, it could be called from the watchdog thread.
+     *
+     * @param reference the plugin class
+     * @param cause the reason the plugin didn't start
+     */
+    void fail(@NotNull Class<?> reference, @NotNull Throwable cause) {
+        synchronized (futures) {
+            failures.put(reference, cause);
+        }
+
+        getPlugin(reference).completeExceptionally(cause);
+    }
+
+    /**
+     * Called by the loader when the load finishes successfully.
+     *
+     * @param plugins the loaded plugins
+     */
+    void complete(@NotNull PluginInfo @NotNull [] plugins) {
+        // Plugins built but not started, the failed ones are already completed
+        for (@NotNull PluginInfo plugin : plugins) {
+            getPlugin(plugin.getReference()).complete(plugin);
+        }
+
+        this.plugins.complete(plugins);
+
+        for (@NotNull Map.Entry<Class<?>, CompletableFuture<PluginInfo>> entry : getFutures()) {
+            fail(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Called by the loader when the load fails.
+     *
+     * @param throwable the failure
+     */
+    void fail(@NotNull Throwable throwable) {
+        plugins.completeExceptionally(throwable);
+
+        for (@NotNull Map.Entry<Class<?>, CompletableFuture<PluginInfo>> entry : getFutures()) {
+            entry.getValue().completeExceptionally(throwable);
+        }
+    }
+
+    private @NotNull List<Map.Entry<Class<?>, CompletableFuture<PluginInfo>>> getFutures() {
+        synchronized (futures) {
+            return new ArrayList<>(futures.entrySet());
+        }
+    }
+    private void fail(@NotNull Class<?> reference, @NotNull CompletableFuture<PluginInfo> future) {
+        @Nullable Throwable cause;
+
+        synchronized (futures) {
+            cause = failures.get(reference);
+        }
+
+        if (plugins.isCompletedExceptionally()) {
+            // Propagate the load failure
+            plugins.whenComplete((result, throwable) -> future.completeExceptionally(throwable));
+        } else if (cause != null) {
+            future.completeExceptionally(cause);
+        } else {
+            future.completeExceptionally(new IllegalArgumentException("the plugin '" + reference.getName() + "' isn't part of this load"));
+        }
+    }
+
+}
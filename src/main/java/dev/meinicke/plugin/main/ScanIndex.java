@@ -0,0 +1,228 @@
+package dev.meinicke.plugin.main;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persistent on-disk index of the plugin classes found in a classpath entry. Each entry has its own
+ * index file at the cache directory, keyed by the entry's size, last modification time and content hash,
+ * so an unchanged entry never needs to be opened again to discover its plugins.
+ * <p>
+ * The cache is best effort: any failure while reading an index is treated as a miss, and any failure
+ * while writing one is only logged.
+ */
+final class ScanIndex {
+
+    // Static initializers
+
+    private static final @NotNull Logger log = LoggerFactory.getLogger(ScanIndex.class);
+
+    private static final int MAGIC = 0x4A504C47; // "JPLG"
+    private static final int VERSION = 1;
+
+    /**
+     * Reads the cached plugin classes of the classpath entry.
+     *
+     * @param directory the cache directory
+     * @param entry the classpath entry
+     * @return the cached plugin classes, or null if there's no valid index for the current entry fingerprint
+     */
+    public static @Nullable List<ClassData> read(@NotNull Path directory, @NotNull Path entry) {
+        @NotNull Path file = getFile(directory, entry);
+
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        // Variables
+        long size;
+        long modified;
+        @NotNull byte[] hash;
+        @NotNull List<ClassData> plugins;
+
+        try (@NotNull DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                return null;
+            } else if (!input.readUTF().equals(entry.toAbsolutePath().toString())) {
+                return null;
+            }
+
+            // Fingerprint
+            size = input.readLong();
+            modified = input.readLong();
+            hash = new byte[input.readInt()];
+            input.readFully(hash);
+
+            // Plugins
+            int count = input.readInt();
+            plugins = new ArrayList<>(count);
+
+            for (int index = 0; index < count; index++) {
+                @NotNull String name = input.readUTF();
+                @NotNull String pluginName = input.readUTF();
+                @NotNull String description = input.readUTF();
+                @NotNull String initializer = input.readUTF();
+                @NotNull List<String> categories = readList(input);
+                @NotNull List<String> dependencies = readList(input);
+
+                plugins.add(new ClassData(name, pluginName, description, initializer, categories, dependencies));
+            }
+        } catch (@NotNull IOException | @NotNull RuntimeException e) {
+            log.debug("Cannot read scan index of entry \"{}\": {}", entry, e.getMessage());
+            return null;
+        }
+
+        // Check fingerprint, the index file is already closed so it can be replaced
+        try {
+            if (Files.size(entry) != size) {
+                return null;
+            } else if (Files.getLastModifiedTime(entry).toMillis() != modified) {
+                // The entry has been touched, it's only reusable if the content is the same
+                if (!Arrays.equals(hash, hash(entry))) {
+                    return null;
+                }
+
+                write(directory, entry, plugins, hash);
+            }
+
+            return plugins;
+        } catch (@NotNull IOException | @NotNull RuntimeException e) {
+            log.debug("Cannot read scan index of entry \"{}\": {}", entry, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the index of the classpath entry with the current entry fingerprint.
+     *
+     * @param directory the cache directory
+     * @param entry the classpath entry
+     * @param plugins all the plugin classes found at the entry
+     */
+    public static void write(@NotNull Path directory, @NotNull Path entry, @NotNull Collection<ClassData> plugins) {
+        try {
+            write(directory, entry, plugins, hash(entry));
+        } catch (@NotNull IOException e) {
+            log.warn("Cannot write scan index of entry \"{}\": {}", entry, e.getMessage());
+        }
+    }
+
+    private static void write(@NotNull Path directory, @NotNull Path entry, @NotNull Collection<ClassData> plugins, @NotNull byte[] hash) {
+        try {
+            Files.createDirectories(directory);
+
+            @NotNull Path file = getFile(directory, entry);
+            @NotNull Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+            try {
+                try (@NotNull DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                    output.writeInt(MAGIC);
+                    output.writeInt(VERSION);
+                    output.writeUTF(entry.toAbsolutePath().toString());
+
+                    // Fingerprint
+                    output.writeLong(Files.size(entry));
+                    output.writeLong(Files.getLastModifiedTime(entry).toMillis());
+                    output.writeInt(hash.length);
+                    output.write(hash);
+
+                    // Plugins
+                    output.writeInt(plugins.size());
+
+                    for (@NotNull ClassData data : plugins) {
+                        output.writeUTF(data.getName());
+                        output.writeUTF(data.getPluginName());
+                        output.writeUTF(data.getPluginDescription());
+                        output.writeUTF(data.getInitializer());
+                        writeList(output, data.getCategories());
+                        writeList(output, data.getDependencies());
+                    }
+                }
+
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (@NotNull IOException e) {
+            log.warn("Cannot write scan index of entry \"{}\": {}", entry, e.getMessage());
+        }
+    }
+
+    // Utilities
+
+    private static @NotNull Path getFile(@NotNull Path directory, @NotNull Path entry) {
+        return directory.resolve(toHex(digest(entry.toAbsolutePath().toString().getBytes(StandardCharsets.UTF_8))) + ".index");
+    }
+
+    private static @NotNull byte[] hash(@NotNull Path entry) throws IOException {
+        @NotNull MessageDigest digest = getDigest();
+        @NotNull byte[] buffer = new byte[8192];
+
+        try (@NotNull InputStream input = Files.newInputStream(entry)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        return digest.digest();
+    }
+    private static @NotNull byte[] digest(@NotNull byte[] bytes) {
+        return getDigest().digest(bytes);
+    }
+    private static @NotNull MessageDigest getDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (@NotNull NoSuchAlgorithmException e) {
+            throw new IllegalStateException("cannot retrieve SHA-256 message digest", e);
+        }
+    }
+    private static @NotNull String toHex(@NotNull byte[] bytes) {
+        @NotNull StringBuilder builder = new StringBuilder(bytes.length * 2);
+
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+
+        return builder.toString();
+    }
+
+    private static @NotNull List<String> readList(@NotNull DataInputStream input) throws IOException {
+        int size = input.readInt();
+        @NotNull List<String> list = new ArrayList<>(size);
+
+        for (int index = 0; index < size; index++) {
+            list.add(input.readUTF());
+        }
+
+        return list;
+    }
+    private static void writeList(@NotNull DataOutputStream output, @NotNull List<String> list) throws IOException {
+        output.writeInt(list.size());
+
+        for (@NotNull String string : list) {
+            output.writeUTF(string);
+        }
+    }
+
+    // Object
+
+    private ScanIndex() {
+        throw new UnsupportedOperationException("this class cannot be instantiated");
+    }
+
+}
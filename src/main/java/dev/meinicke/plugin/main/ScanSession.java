@@ -0,0 +1,241 @@
+package dev.meinicke.plugin.main;
+
+import dev.meinicke.plugin.processor.PluginIndexProcessor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Memoizes the plugin candidates (classes whose bytecode is annotated with {@link dev.meinicke.plugin.annotation.Plugin})
+ * discovered by a scan of the runtime, so successive finders of the same factory don't need to scan the classpath
+ * again. The candidates are kept per scan scope (class loaders, module layers and module and index options) until
+ * the session is invalidated.
+ * <p>
+ * The packages filter isn't part of the scope: the scope is scanned once without pruning any package, and each
+ * finder only receives the candidates within its own packages. Finders of different packages share the same scan.
+ * <p>
+ * The scopes hold the class loaders and module layers weakly, the candidates of a discarded class loader or layer
+ * are dropped as soon as it's collected. Each scope is scanned only once, even by concurrent finders.
+ */
+final class ScanSession {
+
+    // Object
+
+    private final @NotNull Map<Scope, Candidates> candidates = new ConcurrentHashMap<>();
+    private final @NotNull ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    public ScanSession() {
+    }
+
+    // Modules
+
+    /**
+     * Retrieves the plugin candidates of the finder's scan scope within the finder's packages, scanning the
+     * runtime only if there's no memoized scan for it yet. If another finder is already scanning the same scope,
+     * waits for its scan instead of scanning again.
+     *
+     * @param finder the plugin finder
+     * @param classLoaders the class loaders used to discover the compile-time indexes
+     * @return the plugin candidates
+     * @throws IOException if an I/O error occurs while scanning
+     */
+    public @Unmodifiable @NotNull List<ClassData> getCandidates(@NotNull PluginFinderImpl finder, @NotNull Set<ClassLoader> classLoaders) throws IOException {
+        expunge();
+
+        @NotNull Scope scope = new Scope(finder, classLoaders, queue);
+        @NotNull List<ClassData> list = candidates.computeIfAbsent(scope, k -> new Candidates()).get(finder, classLoaders);
+
+        // The memoized scan isn't pruned, filter the packages of this finder
+        if (finder.getPackages().isEmpty()) {
+            return list;
+        }
+
+        @NotNull List<ClassData> filtered = new ArrayList<>();
+        for (@NotNull ClassData data : list) {
+            @NotNull String name = data.getName();
+            if (finder.checkPackageWithin(name.contains(".") ? name.substring(0, name.lastIndexOf('.')) : "")) {
+                filtered.add(data);
+            }
+        }
+
+        return Collections.unmodifiableList(filtered);
+    }
+
+    /**
+     * Discards all the memoized scans, the next finders will scan the runtime again.
+     */
+    public void invalidate() {
+        candidates.clear();
+    }
+
+    private void expunge() {
+        @Nullable Reference<?> reference;
+
+        while ((reference = queue.poll()) != null) {
+            candidates.remove(((ScopeReference) reference).scope);
+        }
+    }
+
+    // Static initializers
+
+    /**
+     * Scans the compile-time indexes visible by the class loaders and then all the classpath entries
+     * and modules that aren't indexed.
+     *
+     * @param finder the plugin finder
+     * @param packages the packages filter used to skip the classes while scanning
+     * @param classLoaders the class loaders used to discover the compile-time indexes
+     * @param consumer the consumer of the classes, it must be thread-safe if the scan is parallel
+     * @throws IOException if an I/O error occurs while scanning
+     */
+    static void scan(@NotNull PluginFinderImpl finder, @NotNull Map<String, Boolean> packages, @NotNull Set<ClassLoader> classLoaders, @NotNull Consumer<@NotNull ClassData> consumer) throws IOException {
+        // Use the compile-time indexes, the indexed entries will not be scanned
+        @NotNull Set<Path> indexed = new HashSet<>();
+
+        if (finder.isIndexEnabled()) {
+            @NotNull Set<URL> resources = new LinkedHashSet<>();
+
+            for (@NotNull ClassLoader classLoader : classLoaders) {
+                resources.addAll(Collections.list(classLoader.getResources(PluginIndexProcessor.RESOURCE)));
+            }
+
+            for (@NotNull URL resource : resources) {
+                @Nullable Path entry = PluginIndex.getEntry(resource);
+
+                PluginIndex.read(resource).forEach(consumer);
+                if (entry != null) indexed.add(entry);
+            }
+        }
+
+        // Scan all the remaining entries
+        Classes.consumeAllClasses(finder, packages, indexed, consumer);
+    }
+
+    // Classes
+
+    /**
+     * The memoized scan of a scope, scanned by the first finder that needs it, with all the packages.
+     */
+    private static final class Candidates {
+
+        private volatile @Nullable List<ClassData> list;
+
+        public @Unmodifiable @NotNull List<ClassData> get(@NotNull PluginFinderImpl finder, @NotNull Set<ClassLoader> classLoaders) throws IOException {
+            @Nullable List<ClassData> list = this.list;
+            if (list != null) return list;
+
+            synchronized (this) {
+                if (this.list == null) {
+                    @NotNull Collection<ClassData> found = new ConcurrentLinkedQueue<>();
+                    scan(finder, Collections.emptyMap(), classLoaders, data -> {
+                        if (data.isPlugin()) found.add(data);
+                    });
+
+                    this.list = Collections.unmodifiableList(new ArrayList<>(found));
+                }
+
+                return this.list;
+            }
+        }
+
+    }
+
+    /**
+     * Everything that changes which classes an unpruned scan discovers. The class loaders and module layers are
+     * weakly referenced, a scope whose class loader or layer was collected is only equal to itself.
+     */
+    private static final class Scope {
+
+        private final @NotNull List<ScopeReference> classLoaders = new ArrayList<>();
+        private final @NotNull List<ScopeReference> layers = new ArrayList<>();
+        private final @NotNull Set<String> modules;
+        private final boolean systemModules;
+        private final boolean indexEnabled;
+        private final int hash;
+
+        private Scope(@NotNull PluginFinderImpl finder, @NotNull Set<ClassLoader> classLoaders, @NotNull ReferenceQueue<Object> queue) {
+            int hash = 0;
+
+            for (@NotNull ClassLoader classLoader : new HashSet<>(classLoaders)) {
+                this.classLoaders.add(new ScopeReference(classLoader, this, queue));
+                hash += System.identityHashCode(classLoader);
+            }
+            for (@NotNull ModuleLayer layer : new HashSet<>(finder.getLayers())) {
+                this.layers.add(new ScopeReference(layer, this, queue));
+                hash += 31 * System.identityHashCode(layer);
+            }
+
+            this.modules = new HashSet<>(finder.getModuleNames());
+            this.systemModules = finder.hasSystemModules();
+            this.indexEnabled = finder.isIndexEnabled();
+            this.hash = Objects.hash(hash, modules, systemModules, indexEnabled);
+        }
+
+        // Implementations
+
+        @Override
+        public boolean equals(@Nullable Object object) {
+            if (this == object) return true;
+            if (!(object instanceof Scope)) return false;
+            @NotNull Scope scope = (Scope) object;
+
+            if (hash != scope.hash || systemModules != scope.systemModules || indexEnabled != scope.indexEnabled || !modules.equals(scope.modules)) {
+                return false;
+            }
+
+            return referents(classLoaders, scope.classLoaders) && referents(layers, scope.layers);
+        }
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        private static boolean referents(@NotNull List<ScopeReference> one, @NotNull List<ScopeReference> two) {
+            if (one.size() != two.size()) {
+                return false;
+            }
+
+            @NotNull Set<Object> referents = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (@NotNull ScopeReference reference : one) {
+                @Nullable Object referent = reference.get();
+                if (referent == null) return false;
+
+                referents.add(referent);
+            }
+            for (@NotNull ScopeReference reference : two) {
+                @Nullable Object referent = reference.get();
+                if (referent == null || !referents.contains(referent)) return false;
+            }
+
+            return true;
+        }
+
+    }
+
+    /**
+     * A weak reference to a class loader or module layer of a scope, enqueued when it's collected
+     * so the scope can be removed from the session.
+     */
+    private static final class ScopeReference extends WeakReference<Object> {
+
+        private final @NotNull Scope scope;
+
+        private ScopeReference(@NotNull Object referent, @NotNull Scope scope, @NotNull ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.scope = scope;
+        }
+
+    }
+
+}
@@ -1,17 +1,25 @@
 package dev.meinicke.plugin.main;
 
 import dev.meinicke.plugin.PluginInfo;
-import dev.meinicke.plugin.exception.PluginInterruptException;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
+/**
+ * The shutdown hook of a plugin factory, it closes the plugins of every load made with a shutdown hook
+ * (see {@link dev.meinicke.plugin.factory.PluginFinder#setShutdownHook(boolean)}). Each plugin is closed at the
+ * executor and with the close timeout of the load that started it.
+ * <p>
+ * The close order is built over all the plugins of the factory, so a plugin is only closed after its dependants
+ * of any load, even the dependants that aren't closed by the hook.
+ */
 final class ShutdownHookThread extends Thread {
 
     // Static initializers
@@ -21,40 +29,86 @@ final class ShutdownHookThread extends Thread {
 
     // Object
 
-    private final @NotNull Collection<PluginInfo> plugins;
+    private final @NotNull PluginFactoryImpl factory;
+    private final @NotNull Map<PluginInfo, Load> plugins = new LinkedHashMap<>();
 
-    public ShutdownHookThread(@NotNull Collection<PluginInfo> plugins) {
+    public ShutdownHookThread(@NotNull PluginFactoryImpl factory) {
         super("Plug-ins Shutdown Hook #" + THREAD_COUNT.getAndIncrement());
-        this.plugins = plugins;
+        this.factory = factory;
     }
 
     // Getters
 
-    private @NotNull Collection<PluginInfo> getPlugins() {
-        return plugins;
+    /**
+     * @return true if there's no plugin left to be closed by this hook
+     */
+    public synchronized boolean isEmpty() {
+        return plugins.isEmpty();
     }
 
     // Modules
 
+    /**
+     * Adds the plugins of a load to be closed by this hook.
+     *
+     * @param plugins the plugins of the load
+     * @param executor the executor to close the plugins, or null if they're closed at a temporary pool
+     * @param timeout the close timeout of the plugins, or null if there's no timeout
+     */
+    public synchronized void add(@NotNull Collection<PluginInfo> plugins, @Nullable Executor executor, @Nullable Duration timeout) {
+        @NotNull Load load = new Load(executor, timeout);
+
+        for (@NotNull PluginInfo plugin : plugins) {
+            this.plugins.put(plugin, load);
+        }
+    }
+
+    /**
+     * Stops closing the plugins that match the filter, e.g. because they were already interrupted.
+     *
+     * @param filter the plugins to remove
+     */
+    public synchronized void remove(@NotNull Predicate<PluginInfo> filter) {
+        plugins.keySet().removeIf(filter);
+    }
+
     @Override
     public void run() {
-        @NotNull List<PluginInfo> plugins = new LinkedList<>(getPlugins());
-        Collections.reverse(plugins);
-
-        // Loop
-        for (@NotNull PluginInfo info : plugins) {
-            if (!info.isAutoClose()) {
-                continue;
-            } else if (info.getState() != PluginInfo.State.RUNNING) {
-                continue;
-            }
-
-            try {
-                info.close();
-            } catch (@NotNull PluginInterruptException e) {
-                @NotNull String name = info.getName() != null ? info.getName() : info.getReference().getName();
-                log.error("Cannot gracefully unload plugin \"{}\": {}", name, e.getMessage(), e);
-            }
+        @NotNull Map<PluginInfo, Load> plugins;
+
+        synchronized (this) {
+            plugins = new LinkedHashMap<>(this.plugins);
+        }
+
+        // All the factory plugins in the dependency order, and the hooked plugins that were replaced by a later load
+        @NotNull Set<PluginInfo> order = new LinkedHashSet<>(Arrays.asList(factory.getOrder()));
+        order.addAll(plugins.keySet());
+
+        @NotNull Map<PluginInfo, Throwable> failures = CloseScheduler.close(order, info -> plugins.containsKey(info) && info.isAutoClose() && info.getState() == PluginInfo.State.RUNNING, info -> plugins.get(info).executor, info -> plugins.get(info).timeout, false);
+
+        for (@NotNull Map.Entry<PluginInfo, Throwable> entry : failures.entrySet()) {
+            @NotNull PluginInfo info = entry.getKey();
+            @NotNull String name = info.getName() != null ? info.getName() : info.getReference().getName();
+
+            log.error("Cannot gracefully unload plugin \"{}\": {}", name, entry.getValue().getMessage(), entry.getValue());
+        }
+    }
+
+    // Classes
+
+    /**
+     * The close options of the load that started a plugin.
+     */
+    private static final class Load {
+
+        private final @Nullable Executor executor;
+        private final @Nullable Duration timeout;
+
+        private Load(@Nullable Executor executor, @Nullable Duration timeout) {
+            this.executor = executor;
+            this.timeout = timeout;
         }
+
     }
+
 }
@@ -0,0 +1,57 @@
+package dev.meinicke.plugin.main;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides the thread per task executor used by {@link dev.meinicke.plugin.factory.PluginFinder#useVirtualThreads()}.
+ * <p>
+ * The library is compiled for Java 9, so the virtual thread executor ({@code Executors#newVirtualThreadPerTaskExecutor()})
+ * is resolved at runtime. If the runtime doesn't support virtual threads, a daemon platform thread is created per task.
+ */
+final class VirtualThreads {
+
+    // Static initializers
+
+    private static final @NotNull AtomicInteger THREAD_COUNT = new AtomicInteger(0);
+    private static final @NotNull Executor EXECUTOR = create();
+
+    /**
+     * @return the shared thread per task executor, it never needs to be shut down
+     */
+    public static @NotNull Executor getExecutor() {
+        return EXECUTOR;
+    }
+
+    private static @NotNull Executor create() {
+        try {
+            @NotNull MethodHandle handle = MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+            return (ExecutorService) handle.invoke();
+        } catch (@NotNull NoSuchMethodException | @NotNull IllegalAccessException | @NotNull UnsupportedOperationException ignore) {
+            // Older runtime, or virtual threads still are a preview feature that isn't enabled
+        } catch (@NotNull Throwable throwable) {
+            throw new RuntimeException("cannot create virtual thread executor", throwable);
+        }
+
+        return VirtualThreads::platform;
+    }
+    private static void platform(@NotNull Runnable runnable) {
+        @NotNull Thread thread = new Thread(runnable, "Plug-ins Worker #" + THREAD_COUNT.getAndIncrement());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Object
+
+    private VirtualThreads() {
+        throw new UnsupportedOperationException("this class cannot be instantiated");
+    }
+
+}
@@ -0,0 +1,105 @@
+package dev.meinicke.plugin.main;
+
+import dev.meinicke.plugin.PluginInfo;
+import dev.meinicke.plugin.annotation.Timeout;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces the start and close timeouts of the plugins (see {@link Timeout}). The watchdog only observes: the
+ * plugins are started and closed at other threads, and when a deadline expires the plugin is marked as failed
+ * and the stack of the blocked thread is reported, the blocked thread itself is never interrupted.
+ */
+final class Watchdog {
+
+    // Static initializers
+
+    private static final @NotNull Logger log = LoggerFactory.getLogger(Watchdog.class);
+    private static final @NotNull ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        @NotNull Thread thread = new Thread(runnable, "Plug-ins Watchdog");
+        thread.setDaemon(true);
+
+        return thread;
+    });
+
+    /**
+     * @param plugin the plugin
+     * @param timeout the finder's start timeout, or null if it doesn't have one
+     * @return the start timeout of the plugin, or null if it doesn't have one
+     */
+    public static @Nullable Duration getStartTimeout(@NotNull PluginInfo plugin, @Nullable Duration timeout) {
+        @Nullable Timeout annotation = PluginDescriptor.of(plugin.getReference()).getTimeout();
+        return annotation != null ? getTimeout(annotation.start(), annotation.unit(), timeout) : timeout;
+    }
+    /**
+     * @param plugin the plugin
+     * @param timeout the finder's close timeout, or null if it doesn't have one
+     * @return the close timeout of the plugin, or null if it doesn't have one
+     */
+    public static @Nullable Duration getCloseTimeout(@NotNull PluginInfo plugin, @Nullable Duration timeout) {
+        @Nullable Timeout annotation = PluginDescriptor.of(plugin.getReference()).getTimeout();
+        return annotation != null ? getTimeout(annotation.close(), annotation.unit(), timeout) : timeout;
+    }
+    private static @Nullable Duration getTimeout(long value, @NotNull TimeUnit unit, @Nullable Duration timeout) {
+        if (value < 0) {
+            return timeout;
+        } else if (value == 0) {
+            return null;
+        } else {
+            return Duration.ofNanos(unit.toNanos(value));
+        }
+    }
+
+    /**
+     * Schedules the deadline of a start or close.
+     *
+     * @param timeout the timeout
+     * @param runnable the task to run when the deadline expires, it must do nothing if the start or close already finished
+     * @return the scheduled deadline, it should be cancelled when the start or close finishes
+     */
+    public static @NotNull ScheduledFuture<?> schedule(@NotNull Duration timeout, @NotNull Runnable runnable) {
+        return SCHEDULER.schedule(runnable, timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Marks the plugin as failed because the start or close didn't finish in time, and reports the stack of
+     * the thread that is blocked.
+     *
+     * @param plugin the plugin that expired
+     * @param action the action that didn't finish, "start" or "close"
+     * @param timeout the timeout that expired
+     * @param thread the thread that is blocked, or null if the task didn't even start running
+     */
+    public static void expire(@NotNull PluginInfo plugin, @NotNull String action, @NotNull Duration timeout, @Nullable Thread thread) {
+        @NotNull StringBuilder stack = new StringBuilder();
+
+        if (thread != null) {
+            for (@NotNull StackTraceElement element : thread.getStackTrace()) {
+                stack.append("\n\tat ").append(element);
+            }
+        }
+
+        log.error("Plugin \"{}\" didn't {} in {}ms, it's marked as failed. Blocked thread \"{}\" ({}):{}", plugin, action, timeout.toMillis(), thread != null ? thread.getName() : "none", thread != null ? thread.getState() : "not running", stack);
+
+        try {
+            plugin.expire();
+        } catch (@NotNull RuntimeException e) {
+            log.error("Cannot mark plugin \"{}\" as failed: {}", plugin, e.getMessage(), e);
+        }
+    }
+
+    // Object
+
+    private Watchdog() {
+        throw new UnsupportedOperationException("this class cannot be instantiated");
+    }
+
+}
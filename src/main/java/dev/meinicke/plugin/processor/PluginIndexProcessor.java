@@ -0,0 +1,270 @@
+package dev.meinicke.plugin.processor;
+
+import dev.meinicke.plugin.annotation.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * An annotation processor that generates, at compile time, an index with every class annotated with
+ * {@link Plugin} and the values of its {@link Category}, {@link Dependency}, {@link Initializer},
+ * {@link Priority}, {@link Attribute} and {@link RequireMetadata} annotations.
+ * <p>
+ * The index is written at the {@link #RESOURCE} resource of the compilation output, and it's used by the
+ * plugin finders to discover the plugins of that classpath entry without scanning all of its classes, when
+ * enabled with {@link dev.meinicke.plugin.factory.PluginFinder#setIndexEnabled(boolean)}.
+ * <p>
+ * This processor isn't registered as a service, so it doesn't run at every compilation that has JPlugin at the
+ * classpath. The projects that want the index must enable it explicitly, e.g. with {@code javac -processor
+ * dev.meinicke.plugin.processor.PluginIndexProcessor}, or with the Maven compiler plugin:
+ * <pre>{@code
+ * <configuration>
+ *     <annotationProcessorPaths>
+ *         <path>
+ *             <groupId>dev.meinicke</groupId>
+ *             <artifactId>jplugin</artifactId>
+ *             <version>${jplugin.version}</version>
+ *         </path>
+ *     </annotationProcessorPaths>
+ *     <annotationProcessors>
+ *         <annotationProcessor>dev.meinicke.plugin.processor.PluginIndexProcessor</annotationProcessor>
+ *     </annotationProcessors>
+ * </configuration>
+ * }</pre>
+ * <p>
+ * The index is an UTF-8 text file. Each plugin starts with a line with its binary class name, followed
+ * by the plugin properties, one per line, prefixed by a tab character:
+ * <pre>{@code
+ * com.example.MyPlugin
+ * 	name=My Plugin
+ * 	description=An example plugin
+ * 	category=Example
+ * 	dependency=com.example.OtherPlugin
+ * 	initializer=dev.meinicke.plugin.initializer.ConstructorPluginInitializer
+ * 	priority=-1
+ * 	attribute=key	java.lang.String
+ * 	require-metadata=key	java.lang.Integer
+ * }</pre>
+ * Values with multiple fields are separated by tab characters, and backslashes, tabs and line breaks
+ * inside values are escaped with {@code \\}, {@code \t} and {@code \n}. Lines starting with {@code #} are comments.
+ * <p>
+ * On incremental compilations, the plugins of the existing index that weren't recompiled are kept. The processor
+ * only runs when a compiled class is annotated with {@link Plugin}, so a class that stopped being a plugin is only
+ * removed from the index when it's compiled together with a plugin, or on a full build.
+ *
+ * @since 1.1.8
+ */
+@SupportedAnnotationTypes("dev.meinicke.plugin.annotation.Plugin")
+public final class PluginIndexProcessor extends AbstractProcessor {
+
+    // Static initializers
+
+    /**
+     * The location of the plugins index resource.
+     */
+    public static final @NotNull String RESOURCE = "META-INF/jplugin/index";
+
+    // Object
+
+    private final @NotNull Map<String, List<String>> plugins = new LinkedHashMap<>();
+    private final @NotNull Set<String> compiled = new HashSet<>();
+
+    public PluginIndexProcessor() {
+    }
+
+    // Modules
+
+    @Override
+    public @NotNull SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(@NotNull Set<? extends TypeElement> annotations, @NotNull RoundEnvironment round) {
+        @NotNull Elements elements = processingEnv.getElementUtils();
+
+        // Collect all compiled types, including the ones that aren't plugins anymore
+        for (@NotNull Element element : round.getRootElements()) {
+            collect(elements, element);
+        }
+
+        if (round.processingOver()) {
+            write();
+        }
+
+        // Never claim the annotations
+        return false;
+    }
+
+    private void collect(@NotNull Elements elements, @NotNull Element element) {
+        if (!(element instanceof TypeElement)) {
+            return;
+        }
+
+        @NotNull TypeElement type = (TypeElement) element;
+        @NotNull String name = elements.getBinaryName(type).toString();
+        compiled.add(name);
+
+        // Properties
+        @NotNull List<String> properties = new LinkedList<>();
+        boolean plugin = false;
+
+        for (@NotNull AnnotationMirror mirror : flatten(type.getAnnotationMirrors())) {
+            @NotNull String annotation = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+
+            if (annotation.equals(Plugin.class.getName())) {
+                plugin = true;
+
+                properties.add(0, "description=" + escape(value(elements, mirror, "description")));
+                properties.add(0, "name=" + escape(value(elements, mirror, "name")));
+            } else if (annotation.equals(Category.class.getName())) {
+                properties.add("category=" + escape(value(elements, mirror, "value")));
+            } else if (annotation.equals(Dependency.class.getName())) {
+                properties.add("dependency=" + escape(value(elements, mirror, "type")));
+            } else if (annotation.equals(Initializer.class.getName())) {
+                properties.add("initializer=" + escape(value(elements, mirror, "type")));
+            } else if (annotation.equals(Priority.class.getName())) {
+                properties.add("priority=" + escape(value(elements, mirror, "value")));
+            } else if (annotation.equals(Attribute.class.getName())) {
+                properties.add("attribute=" + escape(value(elements, mirror, "key")) + "\t" + escape(value(elements, mirror, "type")));
+            } else if (annotation.equals(RequireMetadata.class.getName())) {
+                properties.add("require-metadata=" + escape(value(elements, mirror, "key")) + "\t" + escape(value(elements, mirror, "type")));
+            }
+        }
+
+        if (plugin) {
+            plugins.put(name, properties);
+        } else {
+            plugins.remove(name);
+        }
+
+        // Nested classes
+        for (@NotNull Element enclosed : type.getEnclosedElements()) {
+            collect(elements, enclosed);
+        }
+    }
+
+    private void write() {
+        // Keep the plugins of the previous index that weren't compiled now
+        @NotNull Map<String, List<String>> index = new LinkedHashMap<>();
+
+        try {
+            @NotNull FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE);
+
+            try (@NotNull BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                @Nullable List<String> properties = null;
+                @Nullable String line;
+
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    } else if (line.startsWith("\t")) {
+                        if (properties != null) properties.add(line.substring(1));
+                    } else if (compiled.contains(line)) {
+                        properties = null;
+                    } else {
+                        properties = new LinkedList<>();
+                        index.put(line, properties);
+                    }
+                }
+            }
+        } catch (@NotNull IOException | @NotNull IllegalArgumentException ignore) {
+            // There's no previous index
+        }
+
+        index.putAll(plugins);
+
+        if (index.isEmpty()) {
+            return;
+        }
+
+        // Write index
+        try {
+            @NotNull FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE);
+
+            try (@NotNull Writer writer = new BufferedWriter(new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8))) {
+                writer.write("# JPlugin plugins index, generated by " + getClass().getName() + "\n");
+
+                for (@NotNull Map.Entry<String, List<String>> entry : index.entrySet()) {
+                    writer.write(entry.getKey());
+                    writer.write('\n');
+
+                    for (@NotNull String property : entry.getValue()) {
+                        writer.write('\t');
+                        writer.write(property);
+                        writer.write('\n');
+                    }
+                }
+            }
+        } catch (@NotNull IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "cannot write the plugins index '" + RESOURCE + "': " + e.getMessage());
+        }
+    }
+
+    // Utilities
+
+    /**
+     * Expands the repeatable annotation containers into their annotations.
+     */
+    private static @NotNull List<AnnotationMirror> flatten(@NotNull List<? extends AnnotationMirror> mirrors) {
+        @NotNull List<AnnotationMirror> flatten = new ArrayList<>();
+
+        for (@NotNull AnnotationMirror mirror : mirrors) {
+            @NotNull String annotation = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+
+            if (annotation.equals(Categories.class.getName()) || annotation.equals(Dependencies.class.getName()) || annotation.equals(Attributes.class.getName()) || annotation.equals(RequiresMetadata.class.getName())) {
+                for (@NotNull Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals("value") && entry.getValue().getValue() instanceof List) {
+                        for (@NotNull Object value : (List<?>) entry.getValue().getValue()) {
+                            flatten.add((AnnotationMirror) ((AnnotationValue) value).getValue());
+                        }
+                    }
+                }
+            } else {
+                flatten.add(mirror);
+            }
+        }
+
+        return flatten;
+    }
+
+    private @NotNull String value(@NotNull Elements elements, @NotNull AnnotationMirror mirror, @NotNull String name) {
+        for (@NotNull Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+            if (!entry.getKey().getSimpleName().contentEquals(name)) {
+                continue;
+            }
+
+            @NotNull Object value = entry.getValue().getValue();
+
+            if (value instanceof TypeMirror) {
+                @NotNull TypeMirror mirrorType = (TypeMirror) value;
+                @Nullable Element element = processingEnv.getTypeUtils().asElement(mirrorType);
+
+                // Primitive types doesn't have an element
+                return element instanceof TypeElement ? elements.getBinaryName((TypeElement) element).toString() : mirrorType.toString();
+            }
+
+            return value.toString();
+        }
+
+        return "";
+    }
+
+    private static @NotNull String escape(@NotNull String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+}
@@ -0,0 +1,128 @@
+package dev.meinicke.plugin.main;
+
+import dev.meinicke.plugin.annotation.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Compares the scanned class filters on a synthetic classpath directory: the old filter, that loaded every scanned
+ * class to check the {@link Plugin} annotation, and the {@link ClassData} bytecode filter, that only loads the
+ * plugins accepted by the finder.
+ * <p>
+ * This is a benchmark, not a test, so surefire doesn't run it. Run it with:
+ * <pre>{@code
+ * mvn -B test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=dev.meinicke.plugin.main.ClassDataBenchmark
+ * }</pre>
+ * The {@code classes}, {@code plugins} and {@code rounds} system properties change the number of plain classes
+ * (5000), plugin classes (5) and measured rounds (5).
+ */
+public final class ClassDataBenchmark {
+
+    // Static initializers
+
+    private static final @NotNull String PACKAGE = "dev.meinicke.plugin.benchmark.data";
+
+    public static void main(@NotNull String[] args) throws IOException {
+        int classes = Integer.getInteger("classes", 5000);
+        int plugins = Integer.getInteger("plugins", 5);
+        int rounds = Integer.getInteger("rounds", 5);
+
+        @NotNull Map<String, byte[]> generated = SyntheticClasses.generate(PACKAGE, classes, plugins);
+        @NotNull Path directory = Files.createTempDirectory("jplugin-benchmark");
+
+        try {
+            SyntheticClasses.write(directory, generated);
+            @NotNull PluginFinderImpl finder = (PluginFinderImpl) Plugins.find();
+
+            // The first round of each filter is the warm-up
+            for (int round = 0; round <= rounds; round++) {
+                @NotNull String prefix = round == 0 ? "warm-up" : "round " + round;
+
+                System.out.println(prefix + ", load every class: " + run(directory, generated, null));
+                System.out.println(prefix + ", bytecode filter:  " + run(directory, generated, finder));
+            }
+        } finally {
+            try (@NotNull Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Filters all the generated classes with a new class loader.
+     *
+     * @param finder the finder of the bytecode filter, or null to load every class
+     * @return the results of the run
+     */
+    private static @NotNull String run(@NotNull Path directory, @NotNull Map<String, byte[]> generated, @Nullable PluginFinderImpl finder) throws IOException {
+        try (@NotNull CountingClassLoader loader = new CountingClassLoader(directory)) {
+            int found = 0;
+            long start = System.nanoTime();
+
+            for (@NotNull String name : generated.keySet()) {
+                // Both filters receive an opened class file stream, as at the classpath scan
+                try (@NotNull InputStream stream = Files.newInputStream(directory.resolve(name.replace('.', '/') + ".class"))) {
+                    if (finder != null) {
+                        if (new ClassData(name, stream).loadIfPlugin(loader, finder) != null) found++;
+                    } else try {
+                        if (Class.forName(name, false, loader).isAnnotationPresent(Plugin.class)) found++;
+                    } catch (@NotNull ClassNotFoundException | @NotNull LinkageError ignore) {
+                    }
+                }
+            }
+
+            long time = (System.nanoTime() - start) / 1_000_000;
+            return time + "ms, " + found + " plugins, " + loader.defined + " classes defined";
+        }
+    }
+
+    // Object
+
+    private ClassDataBenchmark() {
+        throw new UnsupportedOperationException("this class cannot be instantiated");
+    }
+
+    // Classes
+
+    private static final class CountingClassLoader extends URLClassLoader {
+
+        // Object
+
+        private int defined = 0;
+
+        private CountingClassLoader(@NotNull Path directory) {
+            super(new URL[] { toURL(directory) }, ClassDataBenchmark.class.getClassLoader());
+        }
+
+        private static @NotNull URL toURL(@NotNull Path directory) {
+            try {
+                return directory.toUri().toURL();
+            } catch (@NotNull IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // Modules
+
+        @Override
+        protected @NotNull Class<?> findClass(@NotNull String name) throws ClassNotFoundException {
+            @NotNull Class<?> reference = super.findClass(name);
+            defined++;
+
+            return reference;
+        }
+
+    }
+
+}
@@ -0,0 +1,94 @@
+package dev.meinicke.plugin.main;
+
+import dev.meinicke.plugin.annotation.Plugin;
+import dev.meinicke.plugin.context.PluginContext;
+import dev.meinicke.plugin.initializer.ConstructorPluginInitializer;
+import dev.meinicke.plugin.initializer.MethodPluginInitializer;
+import dev.meinicke.plugin.initializer.PluginInitializer;
+import dev.meinicke.plugin.initializer.StaticPluginInitializer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Compares the cached {@link InitializerFactoryImpl#getInitializer(Class)} lookup with the previous one, that
+ * streamed the registered initializers on every call, and measures the plugin builder constructions, that
+ * resolve the default initializer of every plugin.
+ * <p>
+ * This is a benchmark, not a test, so surefire doesn't run it. Run it with:
+ * <pre>{@code
+ * mvn -B test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=dev.meinicke.plugin.main.InitializerFactoryBenchmark
+ * }</pre>
+ * The {@code iterations} and {@code rounds} system properties change the operations per round (1000000) and the
+ * measured rounds (5).
+ */
+public final class InitializerFactoryBenchmark {
+
+    // Static initializers
+
+    /**
+     * Keeps the results reachable, so the measured code isn't eliminated.
+     */
+    private static volatile @Nullable Object sink;
+
+    public static void main(@NotNull String[] args) throws IOException {
+        int iterations = Integer.getInteger("iterations", 1_000_000);
+        int rounds = Integer.getInteger("rounds", 5);
+
+        try (@NotNull InitializerFactoryImpl initializers = new InitializerFactoryImpl()) {
+            // Register the default initializers, the requested one is the last at the list
+            initializers.getInitializer(ConstructorPluginInitializer.class);
+            initializers.getInitializer(MethodPluginInitializer.class);
+            initializers.getInitializer(StaticPluginInitializer.class);
+
+            @NotNull PluginFactoryImpl factory = (PluginFactoryImpl) Plugins.getPluginFactory();
+            @NotNull PluginContext context = new PluginContextImpl(Benchmarked.class, InitializerFactoryBenchmark.class, null);
+
+            // The first round is the warm-up
+            for (int round = 0; round <= rounds; round++) {
+                @NotNull String prefix = round == 0 ? "warm-up" : "round " + round;
+                long start;
+
+                start = System.nanoTime();
+                for (int index = 0; index < iterations; index++) {
+                    sink = stream(initializers.getInitializers(), StaticPluginInitializer.class);
+                }
+                System.out.println(prefix + ", streamed lookup:       " + (System.nanoTime() - start) / 1_000_000 + "ms");
+
+                start = System.nanoTime();
+                for (int index = 0; index < iterations; index++) {
+                    sink = initializers.getInitializer(StaticPluginInitializer.class);
+                }
+                System.out.println(prefix + ", cached lookup:         " + (System.nanoTime() - start) / 1_000_000 + "ms");
+
+                start = System.nanoTime();
+                for (int index = 0; index < iterations; index++) {
+                    sink = new PluginBuilderImpl(initializers, factory, Benchmarked.class, context, "benchmark", null);
+                }
+                System.out.println(prefix + ", builder constructions: " + (System.nanoTime() - start) / 1_000_000 + "ms");
+            }
+        }
+    }
+
+    /**
+     * The lookup of the initializer factory before the cache, without the creation of missing initializers.
+     */
+    private static @Nullable PluginInitializer stream(@NotNull Collection<PluginInitializer> initializers, @NotNull Class<? extends PluginInitializer> reference) {
+        return initializers.stream().filter(i -> i.getClass().equals(reference)).findFirst().orElse(null);
+    }
+
+    // Object
+
+    private InitializerFactoryBenchmark() {
+        throw new UnsupportedOperationException("this class cannot be instantiated");
+    }
+
+    // Classes
+
+    @Plugin(name = "benchmark")
+    private static final class Benchmarked {
+    }
+
+}
@@ -0,0 +1,80 @@
+package dev.meinicke.plugin.main;
+
+import dev.meinicke.plugin.PluginInfo;
+import dev.meinicke.plugin.category.PluginCategory;
+import dev.meinicke.plugin.initializer.ConstructorPluginInitializer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Regression check of the plugin names index of {@link PluginFactoryImpl}: when a plugin is replaced, its name
+ * must keep resolving to the next registered plugin with the same name, and the replacement must be found by
+ * its own name.
+ * <p>
+ * The repository has no test framework dependency, so this check is a main class that fails with an
+ * {@link AssertionError}. Run it with:
+ * <pre>{@code
+ * mvn -B test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=dev.meinicke.plugin.main.PluginNamesCheck
+ * }</pre>
+ */
+public final class PluginNamesCheck {
+
+    public static void main(@NotNull String[] args) {
+        // Two plugins with the same name, the first one is replaced by a plugin with another name
+        @NotNull PluginFactoryImpl factory = new PluginFactoryImpl();
+        @NotNull PluginInfo first = create(First.class, "shared");
+        @NotNull PluginInfo second = create(Second.class, "shared");
+
+        factory.register(first);
+        factory.register(second);
+        check(factory.retrieve("shared") == first, "the first registered plugin must own the name");
+
+        @NotNull PluginInfo renamed = create(First.class, "renamed");
+        factory.register(renamed);
+
+        check(factory.retrieve("shared") == second, "the name must resolve to the other plugin with the same name");
+        check(factory.retrieve("renamed") == renamed, "the replacement must be found by its own name");
+
+        // The name is taken back by a replacement, the plugin already indexed with it keeps the name
+        @NotNull PluginInfo back = create(First.class, "shared");
+        factory.register(back);
+
+        check(factory.retrieve("shared") == second, "the plugin already indexed must keep the name");
+
+        try {
+            factory.retrieve("renamed");
+            throw new AssertionError("the replaced plugin name must not be indexed anymore");
+        } catch (@NotNull IllegalArgumentException ignore) {
+        }
+
+        System.out.println("plugin names index: ok");
+    }
+
+    private static void check(boolean condition, @NotNull String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+    private static @NotNull PluginInfo create(@NotNull Class<?> reference, @NotNull String name) {
+        return new PluginInfo(reference, name, null, new PluginInfo[0], new PluginCategory[0], ConstructorPluginInitializer.class, 0, new PluginContextImpl(reference, PluginNamesCheck.class, null)) {
+            @Override
+            public void start() {
+            }
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    // Object
+
+    private PluginNamesCheck() {
+        throw new UnsupportedOperationException("this class cannot be instantiated");
+    }
+
+    // Classes
+
+    private static final class First {
+    }
+    private static final class Second {
+    }
+
+}
@@ -0,0 +1,107 @@
+package dev.meinicke.plugin.main;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Measures the classpath scan of {@link Classes} with different {@link PluginFinderImpl#setScanParallelism(int)}
+ * values, on a synthetic classpath of several jars and a directory.
+ * <p>
+ * The scan reads the {@code java.class.path} property, so it's replaced by the synthetic entries while the
+ * benchmark runs. Every scanned class is parsed, as the plugin loader does.
+ * <p>
+ * This is a benchmark, not a test, so surefire doesn't run it. Run it with:
+ * <pre>{@code
+ * mvn -B test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=dev.meinicke.plugin.main.ScanParallelismBenchmark
+ * }</pre>
+ * The {@code classes}, {@code jars}, {@code parallelism} (comma separated) and {@code rounds} system properties
+ * change the number of classes (5000), of jars (8), the parallelism values (1,2,4,8) and measured rounds (3).
+ */
+public final class ScanParallelismBenchmark {
+
+    // Static initializers
+
+    private static final @NotNull String PACKAGE = "dev.meinicke.plugin.benchmark.scan";
+
+    public static void main(@NotNull String[] args) throws IOException {
+        int classes = Integer.getInteger("classes", 5000);
+        int jars = Integer.getInteger("jars", 8);
+        int rounds = Integer.getInteger("rounds", 3);
+        @NotNull String[] parallelism = System.getProperty("parallelism", "1,2,4,8").split(",");
+
+        @NotNull Path directory = Files.createTempDirectory("jplugin-benchmark");
+        @NotNull String classpath = System.getProperty("java.class.path", "");
+
+        try {
+            // Split the classes between the jars and a directory entry
+            @NotNull List<String> entries = new ArrayList<>();
+
+            for (int index = 0; index <= jars; index++) {
+                @NotNull Map<String, byte[]> generated = SyntheticClasses.generate(PACKAGE + ".e" + index, classes / (jars + 1), 1);
+
+                if (index < jars) {
+                    @NotNull Path jar = directory.resolve("entry-" + index + ".jar");
+                    SyntheticClasses.jar(jar, generated);
+                    entries.add(jar.toString());
+                } else {
+                    @NotNull Path root = directory.resolve("classes");
+                    SyntheticClasses.write(root, generated);
+                    entries.add(root.toString());
+                }
+            }
+
+            System.setProperty("java.class.path", String.join(File.pathSeparator, entries));
+
+            // One finder per parallelism value
+            @NotNull PluginFinderImpl[] finders = new PluginFinderImpl[parallelism.length];
+
+            for (int index = 0; index < parallelism.length; index++) {
+                finders[index] = (PluginFinderImpl) Plugins.find().setScanParallelism(Integer.parseInt(parallelism[index].trim()));
+            }
+
+            // Warm up all the parallelism values first, and interleave them, so the order doesn't favour the last ones
+            for (int round = 0; round < 3; round++) {
+                for (@NotNull PluginFinderImpl finder : finders) run(finder);
+            }
+            for (int round = 1; round <= rounds; round++) {
+                for (@NotNull PluginFinderImpl finder : finders) {
+                    System.out.println("parallelism " + finder.getScanParallelism() + ", round " + round + ": " + run(finder));
+                }
+            }
+        } finally {
+            System.setProperty("java.class.path", classpath);
+
+            try (@NotNull Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    private static @NotNull String run(@NotNull PluginFinderImpl finder) throws IOException {
+        @NotNull LongAdder scanned = new LongAdder();
+        @NotNull LongAdder plugins = new LongAdder();
+        long start = System.nanoTime();
+
+        Classes.consumeAllClasses(finder, finder.getPackages(), Collections.emptySet(), data -> {
+            scanned.increment();
+            if (data.isPlugin()) plugins.increment();
+        });
+
+        long time = (System.nanoTime() - start) / 1_000_000;
+        return time + "ms, " + scanned.sum() + " classes, " + plugins.sum() + " plugins";
+    }
+
+    // Object
+
+    private ScanParallelismBenchmark() {
+        throw new UnsupportedOperationException("this class cannot be instantiated");
+    }
+
+}
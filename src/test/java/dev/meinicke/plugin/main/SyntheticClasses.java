@@ -0,0 +1,119 @@
+package dev.meinicke.plugin.main;
+
+import dev.meinicke.plugin.annotation.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Generates the synthetic classpaths used by the benchmarks of this package, a mix of plain classes and
+ * classes annotated with {@link Plugin}, spread over 16 sub-packages.
+ */
+final class SyntheticClasses {
+
+    // Static initializers
+
+    private static final @NotNull String PLUGIN = Type.getDescriptor(Plugin.class);
+
+    /**
+     * Generates the class files, by the fully-qualified class names.
+     *
+     * @param packge the root package of the generated classes
+     * @param classes the number of plain classes
+     * @param plugins the number of plugin classes
+     * @return the class files by the class names
+     */
+    public static @NotNull Map<String, byte[]> generate(@NotNull String packge, int classes, int plugins) {
+        @NotNull Map<String, byte[]> generated = new LinkedHashMap<>();
+
+        for (int index = 0; index < classes + plugins; index++) {
+            boolean plugin = index < plugins;
+            @NotNull String name = packge + ".p" + (index % 16) + "." + (plugin ? "Plugin" : "Class") + index;
+
+            generated.put(name, generate(name, plugin));
+        }
+
+        return generated;
+    }
+
+    /**
+     * Writes the class files into a directory, as a classpath directory entry.
+     */
+    public static void write(@NotNull Path directory, @NotNull Map<String, byte[]> classes) throws IOException {
+        for (@NotNull Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            @NotNull Path file = directory.resolve(entry.getKey().replace('.', '/') + ".class");
+
+            Files.createDirectories(file.getParent());
+            Files.write(file, entry.getValue());
+        }
+    }
+
+    /**
+     * Writes the class files into a jar file.
+     */
+    public static void jar(@NotNull Path file, @NotNull Map<String, byte[]> classes) throws IOException {
+        try (@NotNull OutputStream output = Files.newOutputStream(file); @NotNull JarOutputStream jar = new JarOutputStream(output)) {
+            for (@NotNull Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                jar.putNextEntry(new JarEntry(entry.getKey().replace('.', '/') + ".class"));
+                jar.write(entry.getValue());
+                jar.closeEntry();
+            }
+        }
+    }
+
+    private static @NotNull byte[] generate(@NotNull String name, boolean plugin) {
+        @NotNull String internal = name.replace('.', '/');
+        @NotNull ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internal, null, "java/lang/Object", null);
+
+        if (plugin) {
+            @NotNull AnnotationVisitor annotation = writer.visitAnnotation(PLUGIN, true);
+            annotation.visit("name", name);
+            annotation.visitEnd();
+        }
+
+        // A field, the constructor and a method, so the classes aren't empty
+        writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "value", "Ljava/lang/String;", null, null).visitEnd();
+
+        @NotNull MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitLdcInsn(name);
+        constructor.visitFieldInsn(Opcodes.PUTFIELD, internal, "value", "Ljava/lang/String;");
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        @NotNull MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, "toString", "()Ljava/lang/String;", null, null);
+        method.visitCode();
+        method.visitVarInsn(Opcodes.ALOAD, 0);
+        method.visitFieldInsn(Opcodes.GETFIELD, internal, "value", "Ljava/lang/String;");
+        method.visitInsn(Opcodes.ARETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    // Object
+
+    private SyntheticClasses() {
+        throw new UnsupportedOperationException("this class cannot be instantiated");
+    }
+
+}